@@ -0,0 +1,98 @@
+#!/usr/bin/env bash
+#
+# Compares platform-thread and virtual-thread request handling under 1k and 10k concurrent connections.
+#
+# For each mode the script starts the service jar, warms it up, then runs wrk against a read endpoint
+# (a user's borrow history by default, which queries the database on every request) and records requests
+# per second, latency percentiles, live threads, resident memory and committed heap.
+#
+# Requirements: a jar built with -Pjava21, a Java 21 runtime, wrk, curl, jq, the dependencies from
+# compose.yaml, and an open-file limit above the connection count (ulimit -n 65536).
+#
+# Usage: JWT=<token> scripts/benchmark-threads.sh [jar]
+#
+# Environment:
+#   JWT            bearer token accepted by the service (required)
+#   CONNECTIONS    concurrent connections to test (default "1000 10000")
+#   DURATION       wrk duration per run (default 60s)
+#   WRK_THREADS    wrk client threads (default 8)
+#   PATHS          request paths, one picked at random per request (default /api/borrows/user/{1..1000})
+#   JAVA_OPTS      extra JVM flags for both modes, e.g. -Xmx1g -Djdk.tracePinnedThreads=short
+#   OUT            results directory (default target/benchmark)
+
+set -euo pipefail
+
+JAR=${1:-$(ls target/borrow-service-*.jar | head -n 1)}
+PORT=${SERVER_PORT:-8082}
+BASE_URL="http://localhost:${PORT}"
+CONNECTIONS=${CONNECTIONS:-"1000 10000"}
+DURATION=${DURATION:-60s}
+WRK_THREADS=${WRK_THREADS:-8}
+OUT=${OUT:-target/benchmark}
+: "${JWT:?Set JWT to a bearer token accepted by the service}"
+
+mkdir -p "$OUT"
+LUA="$OUT/requests.lua"
+cat > "$LUA" <<LUA
+local paths = {}
+for path in string.gmatch(os.getenv("PATHS") or "", "%S+") do table.insert(paths, path) end
+if #paths == 0 then
+  for i = 1, 1000 do table.insert(paths, "/api/borrows/user/" .. i) end
+end
+wrk.headers["Authorization"] = "Bearer ${JWT}"
+request = function()
+  return wrk.format("GET", paths[math.random(#paths)])
+end
+LUA
+
+metric() {
+  curl -fs "${BASE_URL}/actuator/metrics/$1${2:+?tag=$2}" | jq '.measurements[] | select(.statistic == "VALUE") | .value'
+}
+
+start_service() {
+  local virtual=$1
+  SPRING_THREADS_VIRTUAL_ENABLED=$virtual SERVER_TOMCAT_MAX_CONNECTIONS=12000 \
+    java ${JAVA_OPTS:-} -jar "$JAR" > "$OUT/service-virtual-${virtual}.log" 2>&1 &
+  SERVICE_PID=$!
+  for _ in $(seq 1 120); do
+    if curl -fs "${BASE_URL}/actuator/health" > /dev/null; then
+      return
+    fi
+    sleep 1
+  done
+  echo "Service did not become healthy, see $OUT/service-virtual-${virtual}.log" >&2
+  exit 1
+}
+
+stop_service() {
+  kill "$SERVICE_PID" 2> /dev/null || true
+  wait "$SERVICE_PID" 2> /dev/null || true
+}
+trap stop_service EXIT
+
+RESULTS="$OUT/results.csv"
+echo "mode,connections,requests_per_sec,p50,p99,errors,live_threads,rss_kb,heap_committed_bytes" > "$RESULTS"
+
+for virtual in false true; do
+  mode=$([ "$virtual" = true ] && echo virtual || echo platform)
+  start_service "$virtual"
+  wrk -t "$WRK_THREADS" -c 200 -d 15s -s "$LUA" "$BASE_URL" > /dev/null
+
+  for connections in $CONNECTIONS; do
+    report="$OUT/wrk-${mode}-${connections}.txt"
+    wrk -t "$WRK_THREADS" -c "$connections" -d "$DURATION" --latency --timeout 30s -s "$LUA" "$BASE_URL" > "$report"
+    # Sampled right after the run, while the connections are still being torn down
+    threads=$(metric jvm.threads.live)
+    rss=$(ps -o rss= -p "$SERVICE_PID" | tr -d ' ')
+    heap=$(metric jvm.memory.committed area:heap)
+    rps=$(awk '/Requests\/sec/ {print $2}' "$report")
+    p50=$(awk '$1 == "50%" {print $2}' "$report")
+    p99=$(awk '$1 == "99%" {print $2}' "$report")
+    errors=$(awk '/Non-2xx|Socket errors/ {printf "%s ", $0}' "$report")
+    echo "${mode},${connections},${rps},${p50},${p99},\"${errors}\",${threads},${rss},${heap}" >> "$RESULTS"
+  done
+
+  stop_service
+done
+
+column -s, -t < "$RESULTS"
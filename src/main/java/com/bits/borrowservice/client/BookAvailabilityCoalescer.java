@@ -0,0 +1,259 @@
+package com.bits.borrowservice.client;
+
+import com.bits.borrowservice.config.TaskExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces book availability lookups in front of {@link BookServiceClient}.
+ * <p>
+ * Concurrent lookups for the same book share one in-flight call. Lookups for different books are gathered
+ * for up to {@code service.book.availability.batch.window} (or until {@code max-size} IDs are pending) and sent
+ * as one bulk request; if the book service has no bulk endpoint, or the bulk call fails, the batch is resolved
+ * with per-ID calls instead.
+ * <p>
+ * Batches and per-ID fallbacks run on {@code dispatch-threads} threads with at most {@code queue-capacity}
+ * tasks queued. When the book service stalls and the queue is full, the submitting thread resolves the task
+ * itself, which holds up the collector instead of queueing work without bound.
+ */
+@Component
+public class BookAvailabilityCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(BookAvailabilityCoalescer.class);
+
+    private final BookServiceClient bookServiceClient;
+    private final Environment environment;
+    private final ConcurrentMap<Long, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final BlockingQueue<Long> pending = new LinkedBlockingQueue<>();
+
+    private final Counter lookups;
+    private final Counter coalescedLookups;
+    private final Counter remoteLookups;
+    private final DistributionSummary batchSizes;
+
+    @Value("${service.book.availability.batch.enabled:true}")
+    private boolean batchingEnabled;
+
+    @Value("${service.book.availability.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${service.book.availability.batch.window:5ms}")
+    private Duration batchWindow;
+
+    @Value("${service.book.availability.batch.dispatch-threads:8}")
+    private int dispatchThreads;
+
+    // Batches and per-ID fallbacks queued beyond this are resolved by the thread submitting them
+    @Value("${service.book.availability.batch.queue-capacity:200}")
+    private int dispatchQueueCapacity;
+
+    @Value("${service.book.availability.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    private volatile boolean bulkEndpointAvailable = true;
+    private volatile boolean running;
+    private Thread collector;
+    private AsyncTaskExecutor dispatcher;
+
+    public BookAvailabilityCoalescer(BookServiceClient bookServiceClient, Environment environment,
+                                     MeterRegistry meterRegistry) {
+        this.bookServiceClient = bookServiceClient;
+        this.environment = environment;
+        this.lookups = Counter.builder("book.availability.lookups")
+                .description("Availability lookups requested by callers")
+                .register(meterRegistry);
+        this.coalescedLookups = Counter.builder("book.availability.lookups.coalesced")
+                .description("Lookups answered by joining an in-flight call for the same book")
+                .register(meterRegistry);
+        this.remoteLookups = Counter.builder("book.availability.remote.lookups")
+                .description("Book IDs actually sent to the book service")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("book.availability.batch.size")
+                .description("Number of book IDs per dispatched batch")
+                .register(meterRegistry);
+        Gauge.builder("book.availability.coalescing.ratio", this,
+                        coalescer -> coalescer.remoteLookups.count() == 0
+                                ? 1.0 : coalescer.lookups.count() / coalescer.remoteLookups.count())
+                .description("Caller lookups per book ID sent to the book service")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!batchingEnabled) {
+            return;
+        }
+        dispatcher = TaskExecutors.create(environment, "book-availability-", dispatchThreads, dispatchQueueCapacity);
+
+        running = true;
+        collector = new CustomizableThreadFactory("book-availability-collector-").newThread(this::collectBatches);
+        collector.setDaemon(true);
+        collector.start();
+        logger.debug("Book availability batching started with window {} and max batch size {}", batchWindow, maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (collector != null) {
+            collector.interrupt();
+        }
+        if (dispatcher != null) {
+            TaskExecutors.shutdown(dispatcher);
+        }
+    }
+
+    public boolean isAvailable(Long bookId) {
+        return await(bookId, lookup(bookId));
+    }
+
+    /**
+     * Looks up several books at once. With batching enabled they are queued together, so they go out in as
+     * few bulk requests as {@code max-size} allows.
+     */
+    public Map<Long, Boolean> areAvailable(Collection<Long> bookIds) {
+        Map<Long, CompletableFuture<Boolean>> calls = new LinkedHashMap<>();
+        for (Long bookId : bookIds) {
+            calls.computeIfAbsent(bookId, this::lookup);
+        }
+        Map<Long, Boolean> availability = new LinkedHashMap<>();
+        calls.forEach((bookId, call) -> availability.put(bookId, await(bookId, call)));
+        return availability;
+    }
+
+    private CompletableFuture<Boolean> lookup(Long bookId) {
+        lookups.increment();
+        CompletableFuture<Boolean> call = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(bookId, call);
+        if (existing != null) {
+            coalescedLookups.increment();
+            logger.debug("Joining in-flight availability lookup for book ID: {}", bookId);
+            return existing;
+        }
+
+        if (batchingEnabled && running) {
+            pending.add(bookId);
+        } else {
+            resolveSingle(bookId);
+        }
+        return call;
+    }
+
+    private boolean await(Long bookId, CompletableFuture<Boolean> call) {
+        try {
+            return call.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drop the stuck call so later lookups for this book start a fresh one instead of joining it
+            inFlight.remove(bookId, call);
+            logger.warn("Timed out waiting for availability of book ID {}, assuming not available", bookId);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("Availability lookup failed for book ID {}: {}", bookId, e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    private void collectBatches() {
+        long windowNanos = batchWindow.toNanos();
+        while (running) {
+            try {
+                Long first = pending.take();
+                List<Long> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    Long next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatcher.execute(() -> resolveBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error while collecting availability batch: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void resolveBatch(List<Long> batch) {
+        batchSizes.record(batch.size());
+        if (batch.size() == 1) {
+            resolveSingle(batch.get(0));
+            return;
+        }
+
+        if (bulkEndpointAvailable) {
+            try {
+                remoteLookups.increment(batch.size());
+                Map<Long, Boolean> availability = bookServiceClient.checkBooksAvailability(batch);
+                for (Long bookId : batch) {
+                    Boolean isAvailable = availability.get(bookId);
+                    if (isAvailable != null) {
+                        complete(bookId, isAvailable);
+                    } else {
+                        resolveSingle(bookId);
+                    }
+                }
+                return;
+            } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+                logger.info("Book service has no bulk availability endpoint, using per-ID lookups");
+                bulkEndpointAvailable = false;
+            } catch (HttpServerErrorException.NotImplemented e) {
+                logger.info("Book service does not implement bulk availability, using per-ID lookups");
+                bulkEndpointAvailable = false;
+            } catch (Exception e) {
+                logger.warn("Bulk availability lookup for {} books failed, falling back to per-ID lookups: {}",
+                        batch.size(), e.getMessage());
+            }
+        }
+
+        for (Long bookId : batch) {
+            dispatcher.execute(() -> resolveSingle(bookId));
+        }
+    }
+
+    private void resolveSingle(Long bookId) {
+        try {
+            remoteLookups.increment();
+            complete(bookId, bookServiceClient.checkBookAvailability(bookId));
+        } catch (Exception e) {
+            CompletableFuture<Boolean> call = inFlight.remove(bookId);
+            if (call != null) {
+                call.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void complete(Long bookId, boolean isAvailable) {
+        CompletableFuture<Boolean> call = inFlight.remove(bookId);
+        if (call != null) {
+            call.complete(isAvailable);
+        }
+    }
+}
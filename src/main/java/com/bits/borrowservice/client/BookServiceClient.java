@@ -6,16 +6,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
 @Component
 public class BookServiceClient {
     private static final Logger logger = LoggerFactory.getLogger(BookServiceClient.class);
+    private static final ParameterizedTypeReference<Map<Long, Boolean>> AVAILABILITY_BY_ID =
+            new ParameterizedTypeReference<>() {};
     private final RestTemplate restTemplate;
 
     @Value("${service.book.url}")
@@ -50,7 +56,30 @@ public class BookServiceClient {
         }
     }
 
-    @CircuitBreaker(name = "bookService", fallbackMethod = "updateStatusFallback")
+    // No fallback: callers (BookAvailabilityCoalescer) fall back to per-ID lookups themselves
+    @CircuitBreaker(name = "bookService")
+    public Map<Long, Boolean> checkBooksAvailability(Collection<Long> bookIds) {
+        logger.debug("Checking availability for {} books", bookIds.size());
+        String url = bookServiceUrl + "/api/books/availability";
+        logger.debug("Calling book service at URL: {}", url);
+
+        try {
+            Map<Long, Boolean> result = restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(bookIds),
+                    AVAILABILITY_BY_ID).getBody();
+            Map<Long, Boolean> availability = new HashMap<>();
+            if (result != null) {
+                result.forEach((bookId, isAvailable) -> availability.put(bookId, Boolean.TRUE.equals(isAvailable)));
+            }
+            logger.debug("Bulk availability check returned {} results", availability.size());
+            return availability;
+        } catch (Exception e) {
+            logger.error("Error checking bulk book availability: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    // No fallback: failures must reach BookStatusOutboxDispatcher so the update is retried
+    @CircuitBreaker(name = "bookService")
     public void updateBookStatus(Long bookId, String status) {
         logger.debug("Updating status for book ID: {} to status: {}", bookId, status);
         String url = bookServiceUrl + "/api/books/" + bookId + "/status";
@@ -73,11 +102,4 @@ public class BookServiceClient {
         // In case of service unavailability, assume book is not available
         return false;
     }
-
-    private void updateStatusFallback(Long bookId, String status, Exception e) {
-        logger.warn("Circuit breaker triggered for updateBookStatus. Book ID: {}, Status: {}. Error: {}", 
-            bookId, status, e.getMessage());
-        // Log the error but don't throw exception
-        // The transaction will be rolled back if needed
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.bits.borrowservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-limited cache in front of {@link UserServiceClient#checkUserStatus(Long)}.
+ * <p>
+ * Only active users are cached: the client's circuit-breaker fallback reports "not active" when the user
+ * service is down, and caching that answer would lock users out for the whole TTL. Entries are dropped as
+ * soon as a user-status event arrives for the user.
+ */
+@Component
+public class UserStatusCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatusCache.class);
+
+    private final UserServiceClient userServiceClient;
+    private final Cache<Long, Boolean> cache;
+
+    public UserStatusCache(UserServiceClient userServiceClient,
+                           @Value("${service.user.status-cache.ttl:30s}") Duration ttl,
+                           @Value("${service.user.status-cache.maximum-size:50000}") long maximumSize,
+                           MeterRegistry meterRegistry) {
+        this.userServiceClient = userServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-status");
+    }
+
+    public boolean isActive(Long userId) {
+        if (cache.getIfPresent(userId) != null) {
+            logger.debug("User status cache hit for user ID: {}", userId);
+            return true;
+        }
+
+        boolean active = userServiceClient.checkUserStatus(userId);
+        if (active) {
+            cache.put(userId, Boolean.TRUE);
+        }
+        return active;
+    }
+
+    public void invalidate(Long userId) {
+        logger.debug("Invalidating cached status for user ID: {}", userId);
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
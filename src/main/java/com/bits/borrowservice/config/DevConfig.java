@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @Profile("dev")
 public class DevConfig {
@@ -41,6 +45,13 @@ public class DevConfig {
               return true;
             }
 
+            @Override
+            public Map<Long, Boolean> checkBooksAvailability(Collection<Long> bookIds) {
+                Map<Long, Boolean> availability = new HashMap<>();
+                bookIds.forEach(bookId -> availability.put(bookId, true));
+                return availability;
+            }
+
             @Override
             public void updateBookStatus(Long bookId, String status) {
             }
@@ -0,0 +1,48 @@
+package com.bits.borrowservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identifies this replica, e.g. as the owner of a job lease. Uses the pod name when running in Kubernetes.
+ * <p>
+ * {@link #getValue()} is unique per start, so a restarted replica never inherits its predecessor's leases.
+ * {@link #getHost()} stays the same across restarts on the same host or pod, for names that should be reused,
+ * such as per-replica Kafka consumer groups.
+ */
+@Component
+public class InstanceId {
+    private final String host;
+    private final String value;
+
+    public InstanceId(@Value("${HOSTNAME:}") String hostname) {
+        this.host = StringUtils.hasText(hostname) ? hostname : localHostName();
+        this.value = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "borrow-service";
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.bits.borrowservice.config;
 
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaAdmin;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -43,6 +45,12 @@ public class KafkaConfig {
     @Value("${kafka.topic.due-date-events.replicas:1}")
     private int dueDateEventsReplicas;
 
+    @Value("${kafka.topic.cache-invalidations.name:borrow-cache-invalidations}")
+    private String cacheInvalidationsTopicName;
+
+    @Value("${kafka.topic.cache-invalidations.replicas:1}")
+    private int cacheInvalidationsReplicas;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -73,4 +81,14 @@ public class KafkaConfig {
                 .replicas(dueDateEventsReplicas)
                 .build();
     }
-} 
\ No newline at end of file
+
+    // Broadcast to every replica; one partition keeps each replica's consumer trivial
+    @Bean
+    public NewTopic cacheInvalidationsTopic() {
+        return TopicBuilder.name(cacheInvalidationsTopicName)
+                .partitions(1)
+                .replicas(cacheInvalidationsReplicas)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(Duration.ofHours(1).toMillis()))
+                .build();
+    }
+}
\ No newline at end of file
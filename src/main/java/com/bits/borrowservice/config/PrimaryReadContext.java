@@ -0,0 +1,42 @@
+package com.bits.borrowservice.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary database instead of a replica,
+ * for callers that must read their own recent writes.
+ */
+public final class PrimaryReadContext {
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private PrimaryReadContext() {
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    /**
+     * Runs {@code action} with reads forced to the primary, restoring the previous setting afterwards.
+     * Only affects a transaction that has not yet run a statement, since the connection is chosen then.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean alreadyForced = isPrimaryForced();
+        forcePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (!alreadyForced) {
+                clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bits.borrowservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Serves the request's reads from the primary database when it carries {@value #HEADER}{@code : true},
+ * e.g. a client reading a loan it has just created.
+ */
+@Component
+public class PrimaryReadFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Read-From-Primary";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!Boolean.parseBoolean(request.getHeader(HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        PrimaryReadContext.forcePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryReadContext.clear();
+        }
+    }
+}
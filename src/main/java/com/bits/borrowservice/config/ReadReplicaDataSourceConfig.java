@@ -0,0 +1,75 @@
+package com.bits.borrowservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource when {@code borrow.datasource.replica.urls} lists read replicas.
+ * <p>
+ * Connections are obtained lazily, once the transaction's read-only flag is known: read-only transactions
+ * ({@code @Transactional(readOnly = true)}) go through {@link ReadReplicaRouting}, everything else, including
+ * Flyway, uses the primary pool configured by {@code spring.datasource.*}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${borrow.datasource.replica.urls:}'.isBlank()")
+public class ReadReplicaDataSourceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaDataSourceConfig.class);
+
+    @Bean
+    public ReadReplicaRouting readReplicaRouting(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${borrow.datasource.replica.urls}") List<String> replicaUrls,
+                                                 @Value("${borrow.datasource.replica.username:}") String replicaUsername,
+                                                 @Value("${borrow.datasource.replica.password:}") String replicaPassword,
+                                                 @Value("${borrow.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+                                                 @Value("${borrow.datasource.replica.max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(StringUtils.hasText(replicaUsername) ? replicaUsername : primary.getUsername());
+            replica.setPassword(StringUtils.hasText(replicaPassword) ? replicaPassword : primary.getPassword());
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setMinimumIdle(Math.min(primary.getMinimumIdle(), replicaPoolSize));
+            replica.setConnectionTimeout(primary.getConnectionTimeout());
+            replica.setIdleTimeout(primary.getIdleTimeout());
+            replica.setMaxLifetime(primary.getMaxLifetime());
+            replica.setReadOnly(true);
+            replica.setPoolName(primary.getPoolName() + "-replica-" + i);
+            replicas.add(replica);
+        }
+        logger.info("Routing read-only transactions to {} replica(s), max lag {}", replicas.size(), maxLag);
+        return new ReadReplicaRouting(primary, replicas, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRouting routing) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing.getPrimary());
+        dataSource.setReadOnlyDataSource(routing.getReadOnlyDataSource());
+        return dataSource;
+    }
+}
@@ -0,0 +1,159 @@
+package com.bits.borrowservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the primary and replica connection pools and picks the pool for read-only transactions.
+ * <p>
+ * Reads go round-robin to replicas whose replay lag, checked every
+ * {@code borrow.datasource.replica.lag-check-interval}, is within {@code borrow.datasource.replica.max-lag}.
+ * They fall back to the primary when no replica qualifies or when {@link PrimaryReadContext} asks for it.
+ * Each pool reports its own {@code hikaricp.*} metrics under its pool name.
+ */
+public class ReadReplicaRouting implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRouting.class);
+    private static final String PRIMARY = "primary";
+
+    // Zero while the replica has replayed everything it received, so an idle primary does not look like lag
+    private static final String REPLICA_LAG_SQL = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final DataSource readOnlyDataSource;
+
+    public ReadReplicaRouting(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                              Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.replicas = new ArrayList<>(replicaPools.size());
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+        primary.setMetricsTrackerFactory(metricsTrackerFactory);
+        for (HikariDataSource pool : replicaPools) {
+            pool.setMetricsTrackerFactory(metricsTrackerFactory);
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            Gauge.builder("borrow.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag of the read replica at the last check")
+                    .baseUnit("seconds")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        this.replicaReads = Counter.builder("borrow.datasource.reads")
+                .description("Read-only transactions by target database")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("borrow.datasource.reads")
+                .description("Read-only transactions by target database")
+                .tag("target", PRIMARY)
+                .register(meterRegistry);
+        this.readOnlyDataSource = createRouter();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Target for connections of read-only transactions.
+     */
+    public DataSource getReadOnlyDataSource() {
+        return readOnlyDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${borrow.datasource.replica.lag-check-interval:5000}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            try {
+                Double lag = new JdbcTemplate(replica.pool).queryForObject(REPLICA_LAG_SQL, Double.class);
+                replica.lagSeconds = lag != null ? lag : 0;
+                boolean healthy = replica.lagSeconds <= maxLag.toSeconds();
+                if (healthy != replica.healthy) {
+                    logger.warn("Replica {} is {} (lag {}s)", replica.pool.getPoolName(),
+                            healthy ? "back in rotation" : "lagging, reading from primary", replica.lagSeconds);
+                }
+                replica.healthy = healthy;
+            } catch (RuntimeException e) {
+                if (replica.healthy) {
+                    logger.warn("Replica {} is unreachable, reading from primary: {}", replica.pool.getPoolName(), e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private DataSource createRouter() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i).pool);
+        }
+
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return selectTarget();
+            }
+        };
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        return router;
+    }
+
+    private Object selectTarget() {
+        if (!PrimaryReadContext.isPrimaryForced()) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size(); i++) {
+                int index = (start + i) % replicas.size();
+                if (replicas.get(index).healthy) {
+                    replicaReads.increment();
+                    return index;
+                }
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
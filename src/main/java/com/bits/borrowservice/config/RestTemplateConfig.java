@@ -1,38 +1,111 @@
 package com.bits.borrowservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 @Configuration
 public class RestTemplateConfig {
     private static final Logger logger = LoggerFactory.getLogger(RestTemplateConfig.class);
 
-    @Value("${service.book.timeout:5000}")
-    private int bookServiceTimeout;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final List<CloseableHttpClient> pooledClients = new CopyOnWriteArrayList<>();
 
-    @Value("${service.user.timeout:5000}")
-    private int userServiceTimeout;
+    public RestTemplateConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
 
     @Bean
     public RestTemplate bookServiceRestTemplate() {
-        logger.debug("Creating RestTemplate for Book Service with timeout: {}ms", bookServiceTimeout);
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(bookServiceTimeout);
-        factory.setReadTimeout(bookServiceTimeout);
-        return new RestTemplate(factory);
+        return new RestTemplate(requestFactory("book", "bookService"));
     }
 
     @Bean
     public RestTemplate userServiceRestTemplate() {
-        logger.debug("Creating RestTemplate for User Service with timeout: {}ms", userServiceTimeout);
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(userServiceTimeout);
-        factory.setReadTimeout(userServiceTimeout);
-        return new RestTemplate(factory);
+        return new RestTemplate(requestFactory("user", "userService"));
+    }
+
+    @PreDestroy
+    public void closePooledClients() {
+        pooledClients.forEach(client -> client.close(CloseMode.GRACEFUL));
+    }
+
+    private ClientHttpRequestFactory requestFactory(String service, String poolName) {
+        String prefix = "service." + service + ".";
+        int timeout = environment.getProperty(prefix + "timeout", Integer.class, 5000);
+        int connectTimeout = environment.getProperty(prefix + "connect-timeout", Integer.class, timeout);
+        int readTimeout = environment.getProperty(prefix + "read-timeout", Integer.class, timeout);
+
+        if (!environment.getProperty(prefix + "pool.enabled", Boolean.class, true)) {
+            logger.debug("Creating unpooled request factory for {} with connect timeout {}ms and read timeout {}ms",
+                    poolName, connectTimeout, readTimeout);
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(connectTimeout);
+            factory.setReadTimeout(readTimeout);
+            return factory;
+        }
+
+        int maxTotal = environment.getProperty(prefix + "pool.max-total", Integer.class, 200);
+        int maxPerRoute = environment.getProperty(prefix + "pool.max-per-route", Integer.class, 100);
+        int acquireTimeout = environment.getProperty(prefix + "pool.acquire-timeout", Integer.class, 1000);
+        Duration keepAlive = environment.getProperty(prefix + "pool.keep-alive", Duration.class, Duration.ofSeconds(30));
+        Duration idleEviction = environment.getProperty(prefix + "pool.idle-eviction", Duration.class, Duration.ofSeconds(60));
+        Duration validateAfterInactivity = environment.getProperty(prefix + "pool.validate-after-inactivity",
+                Duration.class, Duration.ofSeconds(2));
+
+        logger.debug("Creating pooled request factory for {}: maxTotal={}, maxPerRoute={}, connectTimeout={}ms, "
+                        + "readTimeout={}ms, acquireTimeout={}ms, keepAlive={}, idleEviction={}",
+                poolName, maxTotal, maxPerRoute, connectTimeout, readTimeout, acquireTimeout, keepAlive, idleEviction);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+                        .build())
+                .build();
+
+        // Keep-alive from the server's Keep-Alive header wins; otherwise idle connections are reused for keepAlive
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .build();
+        pooledClients.add(httpClient);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, poolName).bindTo(meterRegistry);
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
     }
-} 
\ No newline at end of file
+}
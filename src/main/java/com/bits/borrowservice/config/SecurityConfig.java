@@ -1,6 +1,8 @@
 package com.bits.borrowservice.config;
 
 import com.bits.borrowservice.security.JwtAuthenticationFilter;
+import com.bits.borrowservice.service.IdempotencyService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +43,8 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/v3/api-docs/**").permitAll()
                         .requestMatchers("/api-docs/**").permitAll()
+                        // Completion of a streamed response; the request itself was authorized before streaming
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
 
                         // Require authentication for all other requests
@@ -63,8 +67,9 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Collections.singletonList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-        configuration.setExposedHeaders(List.of("x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token",
+                PrimaryReadFilter.HEADER.toLowerCase(), IdempotencyService.HEADER.toLowerCase()));
+        configuration.setExposedHeaders(List.of("x-auth-token", IdempotencyService.REPLAYED_HEADER.toLowerCase()));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
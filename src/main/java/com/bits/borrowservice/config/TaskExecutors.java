@@ -0,0 +1,59 @@
+package com.bits.borrowservice.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for blocking work handed off from request and job threads, such as calls to the book and user
+ * services.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on Java 21 each task gets its own virtual thread and
+ * {@code concurrency} only caps how many run at once; otherwise a fixed pool of {@code concurrency} platform
+ * threads runs them. In both cases a saturated executor makes the submitting thread wait or run the task
+ * itself rather than reject it.
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * @param queueCapacity tasks queued for the platform thread pool before the caller runs them itself;
+     *                      negative for an unbounded queue
+     */
+    public static AsyncTaskExecutor create(Environment environment, String threadNamePrefix,
+                                           int concurrency, int queueCapacity) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        if (queueCapacity >= 0) {
+            executor.setQueueCapacity(queueCapacity);
+        }
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    public static void shutdown(Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor threadPool) {
+            threadPool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simpleExecutor) {
+            simpleExecutor.close();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.bits.borrowservice.controller;
 
 import com.bits.borrowservice.dto.request.BorrowRequest;
+import com.bits.borrowservice.dto.request.BulkBorrowRequest;
+import com.bits.borrowservice.dto.request.BulkReturnRequest;
 import com.bits.borrowservice.dto.response.BorrowResponse;
-import com.bits.borrowservice.exception.BorrowNotFoundException;
+import com.bits.borrowservice.dto.response.BulkOperationResponse;
+import com.bits.borrowservice.dto.response.CursorPage;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.service.BorrowExportService;
 import com.bits.borrowservice.service.BorrowService;
+import com.bits.borrowservice.service.ExportFormat;
+import com.bits.borrowservice.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -12,8 +19,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/borrows")
@@ -21,7 +39,10 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Borrow Service", description = "APIs for managing book borrows")
 public class BorrowController {
     private static final Logger logger = LoggerFactory.getLogger(BorrowController.class);
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
     private final BorrowService borrowService;
+    private final BorrowExportService borrowExportService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     @Operation(summary = "List all borrow records")
@@ -32,38 +53,108 @@ public class BorrowController {
         return ResponseEntity.ok(borrows);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll all borrow records in ID order using a cursor")
+    public ResponseEntity<CursorPage<BorrowResponse>> scrollAllBorrows(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Scrolling all borrows with cursor: {}, size: {}", cursor, size);
+        return ResponseEntity.ok(borrowService.scrollAllBorrows(cursor, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream borrow history, hot and archived, as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportBorrows(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Borrow.BorrowStatus status,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        logger.debug("Exporting borrows as {} (from: {}, to: {}, status: {}, gzip: {})", exportFormat, from, to, status, gzip);
+
+        // Written on an MVC async thread after the headers are sent; spring.mvc.async.request-timeout bounds it
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                borrowExportService.export(exportFormat, from, to, status, compressed);
+                compressed.finish();
+            } else {
+                borrowExportService.export(exportFormat, from, to, status, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("borrows." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get borrow record details")
     public ResponseEntity<BorrowResponse> getBorrow(@PathVariable Long id) {
         logger.debug("Getting borrow with ID: {}", id);
-        BorrowResponse borrow = borrowService.getUserBorrows(id, Pageable.unpaged())
-                .getContent()
-                .stream()
-                .findFirst()
-                .orElseThrow(() -> {
-                    logger.warn("Borrow not found with ID: {}", id);
-                    return new BorrowNotFoundException("Borrow record not found");
-                });
+        BorrowResponse borrow = borrowService.getBorrow(id);
         logger.debug("Found borrow: {}", borrow);
-        return ResponseEntity.ok(borrow);
+
+        // Validators derived from updated_at; Spring answers a matching If-None-Match/If-Modified-Since with 304
+        Instant lastModified = borrow.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(borrow.getId() + "-" + lastModified.toEpochMilli())
+                .lastModified(lastModified)
+                .body(borrow);
     }
 
     @PostMapping
     @Operation(summary = "Create a new borrow record")
-    public ResponseEntity<BorrowResponse> borrowBook(@Valid @RequestBody BorrowRequest request) {
+    public ResponseEntity<BorrowResponse> borrowBook(
+            @Valid @RequestBody BorrowRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.debug("Creating new borrow request: {}", request);
-        BorrowResponse response = borrowService.borrowBook(request);
-        logger.debug("Created borrow: {}", response);
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey,
+                "borrow:" + request.getUserId() + ":" + request.getBookId(),
+                () -> borrowService.borrowBook(request));
+        logger.debug("Created borrow: {}", result.response());
+        return idempotentResponse(result);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create several borrow records, reporting the outcome per item")
+    public ResponseEntity<BulkOperationResponse> bulkBorrow(@Valid @RequestBody BulkBorrowRequest request) {
+        logger.debug("Creating {} borrows in bulk", request.getItems().size());
+        BulkOperationResponse response = borrowService.bulkBorrow(request);
+        logger.debug("Bulk borrow succeeded for {} items, failed for {}", response.getSucceeded(), response.getFailed());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/batch/return")
+    @Operation(summary = "Process several book returns, reporting the outcome per item")
+    public ResponseEntity<BulkOperationResponse> bulkReturn(@Valid @RequestBody BulkReturnRequest request) {
+        logger.debug("Processing {} returns in bulk", request.getBorrowIds().size());
+        BulkOperationResponse response = borrowService.bulkReturn(request);
+        logger.debug("Bulk return succeeded for {} items, failed for {}", response.getSucceeded(), response.getFailed());
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/{id}/return")
     @Operation(summary = "Process book return")
-    public ResponseEntity<BorrowResponse> returnBook(@PathVariable Long id) {
+    public ResponseEntity<BorrowResponse> returnBook(
+            @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.debug("Processing return for borrow ID: {}", id);
-        BorrowResponse response = borrowService.returnBook(id);
-        logger.debug("Processed return: {}", response);
-        return ResponseEntity.ok(response);
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, "return:" + id,
+                () -> borrowService.returnBook(id));
+        logger.debug("Processed return: {}", result.response());
+        return idempotentResponse(result);
     }
 
     @GetMapping("/user/{userId}")
@@ -77,6 +168,16 @@ public class BorrowController {
         return ResponseEntity.ok(borrows);
     }
 
+    @GetMapping("/user/{userId}/scroll")
+    @Operation(summary = "Scroll borrowing history for a user, newest first, using a cursor")
+    public ResponseEntity<CursorPage<BorrowResponse>> scrollUserBorrows(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Scrolling borrows for user ID: {} with cursor: {}, size: {}", userId, cursor, size);
+        return ResponseEntity.ok(borrowService.scrollUserBorrows(userId, cursor, size));
+    }
+
     @GetMapping("/book/{bookId}")
     @Operation(summary = "Get borrowing history for a book")
     public ResponseEntity<Page<BorrowResponse>> getBookBorrows(
@@ -88,6 +189,25 @@ public class BorrowController {
         return ResponseEntity.ok(borrows);
     }
 
+    @GetMapping("/book/{bookId}/active")
+    @Operation(summary = "Get the loan in progress for a book, if any")
+    public ResponseEntity<BorrowResponse> getActiveBookBorrow(@PathVariable Long bookId) {
+        logger.debug("Getting active borrow for book ID: {}", bookId);
+        return borrowService.getActiveBookBorrow(bookId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/book/{bookId}/scroll")
+    @Operation(summary = "Scroll borrowing history for a book, newest first, using a cursor")
+    public ResponseEntity<CursorPage<BorrowResponse>> scrollBookBorrows(
+            @PathVariable Long bookId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Scrolling borrows for book ID: {} with cursor: {}, size: {}", bookId, cursor, size);
+        return ResponseEntity.ok(borrowService.scrollBookBorrows(bookId, cursor, size));
+    }
+
     @GetMapping("/overdue")
     @Operation(summary = "List overdue borrowings")
     public ResponseEntity<Page<BorrowResponse>> getOverdueBorrows(Pageable pageable) {
@@ -97,12 +217,66 @@ public class BorrowController {
         return ResponseEntity.ok(borrows);
     }
 
+    @GetMapping("/overdue/scroll")
+    @Operation(summary = "Scroll overdue borrowings, earliest due first, using a cursor")
+    public ResponseEntity<CursorPage<BorrowResponse>> scrollOverdueBorrows(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Scrolling overdue borrows with cursor: {}, size: {}", cursor, size);
+        return ResponseEntity.ok(borrowService.scrollOverdueBorrows(cursor, size));
+    }
+
     @PostMapping("/{id}/extend")
     @Operation(summary = "Extend due date")
-    public ResponseEntity<BorrowResponse> extendBorrow(@PathVariable Long id) {
+    public ResponseEntity<BorrowResponse> extendBorrow(
+            @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.debug("Extending borrow ID: {}", id);
-        BorrowResponse response = borrowService.extendBorrow(id);
-        logger.debug("Extended borrow: {}", response);
-        return ResponseEntity.ok(response);
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, "extend:" + id,
+                () -> borrowService.extendBorrow(id));
+        logger.debug("Extended borrow: {}", result.response());
+        return idempotentResponse(result);
+    }
+
+    private static ResponseEntity<BorrowResponse> idempotentResponse(IdempotencyService.Result result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.replayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.response());
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip: listed with a non-zero q-value, or not listed and
+     * allowed by {@code *}. {@code gzip;q=0} refuses it.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
     }
-} 
\ No newline at end of file
+}
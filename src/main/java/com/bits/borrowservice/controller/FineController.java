@@ -0,0 +1,57 @@
+package com.bits.borrowservice.controller;
+
+import com.bits.borrowservice.dto.response.FineBalanceResponse;
+import com.bits.borrowservice.dto.response.FineResponse;
+import com.bits.borrowservice.service.FineService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/fines")
+@RequiredArgsConstructor
+@Tag(name = "Fine Service", description = "APIs for fines on overdue returns")
+public class FineController {
+    private static final Logger logger = LoggerFactory.getLogger(FineController.class);
+    private final FineService fineService;
+
+    @GetMapping("/user/{userId}/balance")
+    @Operation(summary = "Get a user's outstanding fine balance")
+    public ResponseEntity<FineBalanceResponse> getBalance(@PathVariable Long userId) {
+        logger.debug("Getting fine balance for user ID: {}", userId);
+        FineBalanceResponse balance = fineService.getBalance(userId);
+        logger.debug("Fine balance for user {}: {}", userId, balance.getOutstanding());
+        return ResponseEntity.ok(balance);
+    }
+
+    @GetMapping("/user/{userId}")
+    @Operation(summary = "List a user's fines")
+    public ResponseEntity<Page<FineResponse>> getUserFines(@PathVariable Long userId, Pageable pageable) {
+        logger.debug("Getting fines for user ID: {} with pageable: {}", userId, pageable);
+        return ResponseEntity.ok(fineService.getUserFines(userId, pageable));
+    }
+
+    @PostMapping("/{id}/pay")
+    @Operation(summary = "Mark a pending fine as paid")
+    public ResponseEntity<FineResponse> payFine(@PathVariable Long id) {
+        logger.debug("Paying fine ID: {}", id);
+        FineResponse response = fineService.payFine(id);
+        logger.debug("Paid fine: {}", response);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{id}/waive")
+    @Operation(summary = "Waive a pending fine")
+    public ResponseEntity<FineResponse> waiveFine(@PathVariable Long id) {
+        logger.debug("Waiving fine ID: {}", id);
+        FineResponse response = fineService.waiveFine(id);
+        logger.debug("Waived fine: {}", response);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,14 @@
+package com.bits.borrowservice.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkBorrowRequest {
+    @NotEmpty(message = "At least one item is required")
+    private List<@NotNull @Valid BorrowRequest> items;
+}
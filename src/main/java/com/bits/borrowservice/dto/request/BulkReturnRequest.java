@@ -0,0 +1,13 @@
+package com.bits.borrowservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkReturnRequest {
+    @NotEmpty(message = "At least one borrow ID is required")
+    private List<@NotNull Long> borrowIds;
+}
@@ -1,11 +1,15 @@
 package com.bits.borrowservice.dto.response;
 
 import com.bits.borrowservice.entity.Borrow;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BorrowResponse {
     private Long id;
     private Long userId;
@@ -28,4 +32,4 @@ public class BorrowResponse {
         response.setUpdatedAt(borrow.getUpdatedAt());
         return response;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.bits.borrowservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk request; {@code index} is its position in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+    private int index;
+    private boolean success;
+    private BorrowResponse borrow;
+    private String error;
+
+    public static BulkItemResult succeeded(int index, BorrowResponse borrow) {
+        return new BulkItemResult(index, true, borrow, null);
+    }
+
+    public static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, false, null, error);
+    }
+}
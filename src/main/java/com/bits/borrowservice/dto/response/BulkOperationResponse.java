@@ -0,0 +1,21 @@
+package com.bits.borrowservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResponse {
+    private List<BulkItemResult> results;
+    private int succeeded;
+    private int failed;
+
+    public static BulkOperationResponse of(List<BulkItemResult> results) {
+        int succeeded = (int) results.stream().filter(BulkItemResult::isSuccess).count();
+        return new BulkOperationResponse(results, succeeded, results.size() - succeeded);
+    }
+}
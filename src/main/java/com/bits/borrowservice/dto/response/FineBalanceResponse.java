@@ -0,0 +1,22 @@
+package com.bits.borrowservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A user's outstanding fines: the sum and number of their PENDING fines. {@code updatedAt} is null for a
+ * user who never had a fine.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineBalanceResponse {
+    private Long userId;
+    private BigDecimal outstanding;
+    private int pendingFines;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.bits.borrowservice.dto.response;
+
+import com.bits.borrowservice.entity.Fine;
+import com.bits.borrowservice.entity.FineHistory;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class FineResponse {
+    private Long id;
+    private Long borrowId;
+    private BigDecimal amount;
+    private Fine.FineStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static FineResponse fromEntity(Fine fine) {
+        FineResponse response = new FineResponse();
+        response.setId(fine.getId());
+        response.setBorrowId(fine.getBorrow().getId());
+        response.setAmount(fine.getAmount());
+        response.setStatus(fine.getStatus());
+        response.setCreatedAt(fine.getCreatedAt());
+        response.setUpdatedAt(fine.getUpdatedAt());
+        return response;
+    }
+
+    public static FineResponse fromHistory(FineHistory fine) {
+        FineResponse response = new FineResponse();
+        response.setId(fine.getId());
+        response.setBorrowId(fine.getBorrowId());
+        response.setAmount(fine.getAmount());
+        response.setStatus(fine.getStatus());
+        response.setCreatedAt(fine.getCreatedAt());
+        response.setUpdatedAt(fine.getUpdatedAt());
+        return response;
+    }
+}
@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "borrows")
 public class Borrow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrows_id_seq")
+    @SequenceGenerator(name = "borrows_id_seq", sequenceName = "borrows_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,6 +32,9 @@ public class Borrow {
     @Column(nullable = false)
     private BorrowStatus status;
 
+    @Column(name = "extension_count", nullable = false)
+    private Integer extensionCount = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
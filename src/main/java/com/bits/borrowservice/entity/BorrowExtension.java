@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @Table(name = "borrow_extensions")
 public class BorrowExtension {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_extensions_id_seq")
+    @SequenceGenerator(name = "borrow_extensions_id_seq", sequenceName = "borrow_extensions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,43 @@
+package com.bits.borrowservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view over hot and archived loans ({@code borrow_history}), for the history endpoints.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "borrow_history")
+public class BorrowHistory {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "borrow_date")
+    private LocalDateTime borrowDate;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    @Enumerated(EnumType.STRING)
+    private Borrow.BorrowStatus status;
+
+    @Column(name = "extension_count")
+    private Integer extensionCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Table(name = "fines")
 public class Fine {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fines_id_seq")
+    @SequenceGenerator(name = "fines_id_seq", sequenceName = "fines_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +28,10 @@ public class Fine {
     @Column(nullable = false)
     private FineStatus status;
 
+    // Time of the accrual run or return that last set the amount
+    @Column(name = "last_accrued_at")
+    private LocalDateTime lastAccruedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,37 @@
+package com.bits.borrowservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view over hot and archived fines ({@code fine_history}), for the fine listing.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "fine_history")
+public class FineHistory {
+    @Id
+    private Long id;
+
+    @Column(name = "borrow_id")
+    private Long borrowId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private Fine.FineStatus status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "returns")
 public class Return {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "returns_id_seq")
+    @SequenceGenerator(name = "returns_id_seq", sequenceName = "returns_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
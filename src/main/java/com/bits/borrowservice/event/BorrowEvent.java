@@ -0,0 +1,23 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Payload of {@code borrow-events}. Timestamps are epoch milliseconds.
+ */
+public record BorrowEvent(
+        @JsonProperty("v") int schemaVersion,
+        long borrowId,
+        long userId,
+        long bookId,
+        long borrowedAt,
+        long dueAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static BorrowEvent of(Borrow borrow) {
+        return new BorrowEvent(SCHEMA_VERSION, borrow.getId(), borrow.getUserId(), borrow.getBookId(),
+                EventTimestamps.toEpochMilli(borrow.getBorrowDate()), EventTimestamps.toEpochMilli(borrow.getDueDate()));
+    }
+}
@@ -1,24 +1,68 @@
 package com.bits.borrowservice.event;
 
 import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.entity.OutboxEvent;
+import com.bits.borrowservice.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
+/**
+ * Records borrow events in the outbox table as part of the caller's transaction.
+ * {@link OutboxEventRelay} sends them to Kafka after commit.
+ */
 @Component
 @RequiredArgsConstructor
 public class BorrowEventPublisher {
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventPayloadSerializer serializer;
+
+    @Value("${kafka.topic.borrow-events.name:borrow-events}")
+    private String borrowEventsTopic;
+
+    @Value("${kafka.topic.return-events.name:return-events}")
+    private String returnEventsTopic;
+
+    @Value("${kafka.topic.due-date-events.name:due-date-events}")
+    private String dueDateEventsTopic;
 
     public void publishBorrowEvent(Borrow borrow) {
-        kafkaTemplate.send("borrow-events", borrow.getId().toString(), borrow);
+        outboxEventRepository.save(toOutboxEvent(borrowEventsTopic, borrow, serializer.serialize(BorrowEvent.of(borrow))));
     }
 
     public void publishReturnEvent(Borrow borrow) {
-        kafkaTemplate.send("return-events", borrow.getId().toString(), borrow);
+        outboxEventRepository.save(toOutboxEvent(returnEventsTopic, borrow, serializer.serialize(ReturnEvent.of(borrow))));
     }
 
     public void publishDueDateEvent(Borrow borrow) {
-        kafkaTemplate.send("due-date-events", borrow.getId().toString(), borrow);
+        outboxEventRepository.save(toOutboxEvent(dueDateEventsTopic, borrow, serializer.serialize(DueDateEvent.of(borrow))));
+    }
+
+    public void publishBorrowEvents(Collection<Borrow> borrows) {
+        outboxEventRepository.saveAll(borrows.stream()
+                .map(borrow -> toOutboxEvent(borrowEventsTopic, borrow, serializer.serialize(BorrowEvent.of(borrow))))
+                .toList());
+    }
+
+    public void publishReturnEvents(Collection<Borrow> borrows) {
+        outboxEventRepository.saveAll(borrows.stream()
+                .map(borrow -> toOutboxEvent(returnEventsTopic, borrow, serializer.serialize(ReturnEvent.of(borrow))))
+                .toList());
+    }
+
+    public void publishDueDateEvents(Collection<Borrow> borrows) {
+        outboxEventRepository.saveAll(borrows.stream()
+                .map(borrow -> toOutboxEvent(dueDateEventsTopic, borrow, serializer.serialize(DueDateEvent.of(borrow))))
+                .toList());
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, Borrow borrow, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(topic);
+        event.setEventKey(borrow.getId().toString());
+        event.setPayload(payload);
+        return event;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.bits.borrowservice.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Payload of {@code borrow-cache-invalidations}: the loans and books whose cached state changed on the
+ * replica {@code origin}. {@code sentAt} is epoch milliseconds.
+ */
+public record CacheInvalidationEvent(
+        @JsonProperty("v") int schemaVersion,
+        String origin,
+        List<Long> borrowIds,
+        List<Long> bookIds,
+        long sentAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static CacheInvalidationEvent of(String origin, List<Long> borrowIds, List<Long> bookIds) {
+        return new CacheInvalidationEvent(SCHEMA_VERSION, origin, borrowIds, bookIds, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,68 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.service.BookBorrowCache;
+import com.bits.borrowservice.service.BorrowLookupCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Drops cache entries that another replica changed. Every replica consumes the topic with its own group id
+ * and skips its own messages, whose changes it already applied in place. The group id is derived from the
+ * host name and port, so a restarted replica reuses its group instead of leaving one behind on every start.
+ * <p>
+ * {@code borrow.cache.invalidation.delay} records how long an entry could have been stale here: the time from
+ * the write on the origin replica to this invalidation (subject to clock skew between hosts).
+ */
+@Component
+public class CacheInvalidationListener {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final BorrowLookupCache lookupCache;
+    private final BookBorrowCache bookBorrowCache;
+    private final ObjectMapper objectMapper;
+    private final String instanceId;
+    private final Timer invalidationDelay;
+
+    public CacheInvalidationListener(BorrowLookupCache lookupCache,
+                                     BookBorrowCache bookBorrowCache,
+                                     ObjectMapper objectMapper,
+                                     InstanceId instanceId,
+                                     MeterRegistry meterRegistry) {
+        this.lookupCache = lookupCache;
+        this.bookBorrowCache = bookBorrowCache;
+        this.objectMapper = objectMapper;
+        this.instanceId = instanceId.getValue();
+        this.invalidationDelay = Timer.builder("borrow.cache.invalidation.delay")
+                .description("Time from a change on another replica until its cache entries are dropped here")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.cache-invalidations.name:borrow-cache-invalidations}",
+            groupId = "${kafka.topic.cache-invalidations.group-id-prefix:${spring.application.name}-cache}"
+                    + "-#{@instanceId.host}-${server.port:8080}",
+            properties = "auto.offset.reset=latest")
+    public void onCacheInvalidation(String payload) {
+        try {
+            CacheInvalidationEvent event = objectMapper.readValue(payload, CacheInvalidationEvent.class);
+            if (instanceId.equals(event.origin())) {
+                return;
+            }
+            event.borrowIds().forEach(lookupCache::invalidate);
+            event.bookIds().forEach(bookBorrowCache::invalidate);
+            invalidationDelay.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.sentAt())));
+        } catch (Exception e) {
+            logger.warn("Unreadable cache invalidation, clearing borrow caches: {}", e.getMessage());
+            lookupCache.invalidateAll();
+            bookBorrowCache.invalidateAll();
+        }
+    }
+}
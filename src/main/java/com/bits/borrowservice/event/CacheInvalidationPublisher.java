@@ -0,0 +1,35 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.entity.OutboxEvent;
+import com.bits.borrowservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tells the other replicas which cached loans and books changed here. The message is recorded in the outbox
+ * as part of the caller's transaction, so it is sent only if the change commits and a Kafka outage never
+ * blocks the write; {@link OutboxEventRelay} delivers it within one poll interval.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventPayloadSerializer serializer;
+    private final InstanceId instanceId;
+
+    @Value("${kafka.topic.cache-invalidations.name:borrow-cache-invalidations}")
+    private String cacheInvalidationsTopic;
+
+    public void publish(List<Long> borrowIds, List<Long> bookIds) {
+        CacheInvalidationEvent event = CacheInvalidationEvent.of(instanceId.getValue(), borrowIds, bookIds);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(cacheInvalidationsTopic);
+        outboxEvent.setEventKey(instanceId.getValue());
+        outboxEvent.setPayload(serializer.serialize(event));
+        outboxEventRepository.save(outboxEvent);
+    }
+}
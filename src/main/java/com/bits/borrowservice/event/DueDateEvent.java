@@ -0,0 +1,24 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Payload of {@code due-date-events}, sent when a due date is extended ({@code BORROWED})
+ * or a loan becomes {@code OVERDUE}. Timestamps are epoch milliseconds.
+ */
+public record DueDateEvent(
+        @JsonProperty("v") int schemaVersion,
+        long borrowId,
+        long userId,
+        long bookId,
+        long dueAt,
+        Borrow.BorrowStatus status) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static DueDateEvent of(Borrow borrow) {
+        return new DueDateEvent(SCHEMA_VERSION, borrow.getId(), borrow.getUserId(), borrow.getBookId(),
+                EventTimestamps.toEpochMilli(borrow.getDueDate()), borrow.getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes event records to compact JSON with writers prepared once per type.
+ * Uses its own mapper so the wire format does not change with the web layer's Jackson settings.
+ */
+@Component
+public class EventPayloadSerializer {
+    private final ObjectWriter borrowEventWriter;
+    private final ObjectWriter returnEventWriter;
+    private final ObjectWriter dueDateEventWriter;
+    private final ObjectWriter cacheInvalidationWriter;
+
+    public EventPayloadSerializer() {
+        ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.INDENT_OUTPUT);
+        this.borrowEventWriter = mapper.writerFor(BorrowEvent.class);
+        this.returnEventWriter = mapper.writerFor(ReturnEvent.class);
+        this.dueDateEventWriter = mapper.writerFor(DueDateEvent.class);
+        this.cacheInvalidationWriter = mapper.writerFor(CacheInvalidationEvent.class);
+    }
+
+    public String serialize(BorrowEvent event) {
+        return write(borrowEventWriter, event, event.borrowId());
+    }
+
+    public String serialize(ReturnEvent event) {
+        return write(returnEventWriter, event, event.borrowId());
+    }
+
+    public String serialize(DueDateEvent event) {
+        return write(dueDateEventWriter, event, event.borrowId());
+    }
+
+    public String serialize(CacheInvalidationEvent event) {
+        try {
+            return cacheInvalidationWriter.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new BorrowServiceException("Could not serialize cache invalidation from " + event.origin(), e);
+        }
+    }
+
+    private static String write(ObjectWriter writer, Object event, long borrowId) {
+        try {
+            return writer.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new BorrowServiceException("Could not serialize event for borrow " + borrowId, e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bits.borrowservice.event;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+final class EventTimestamps {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private EventTimestamps() {
+    }
+
+    static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+}
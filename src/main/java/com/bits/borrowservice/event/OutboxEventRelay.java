@@ -0,0 +1,234 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.entity.OutboxEvent;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains {@code event_outbox} to Kafka in id order.
+ * <p>
+ * One relay runs at a time across replicas: the replica holding the relay's lease in {@code job_partition_leases}
+ * relays, and another one takes over once that lease expires. Each batch is read in one short transaction and sent
+ * in rounds: a round hands the oldest unsent event of every key to the producer before waiting for
+ * acknowledgements (so bursts go out as a few large producer batches), and a key's next event is only sent in a
+ * later round once the previous one was acknowledged. The acknowledged rows are deleted in a second short
+ * transaction; no connection or lock is held while waiting on Kafka. This gives at-least-once delivery. When an
+ * event fails, nothing more is sent for its key in that batch, so per-key order is preserved for consumers.
+ */
+@Component
+public class OutboxEventRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxEventRelay.class);
+    private static final String JOB_NAME = "event-outbox-relay";
+    private static final int PARTITION = 0;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Counter published;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private volatile long pending;
+    private volatile double lagSeconds;
+
+    // Not a monitor: relay() waits on JDBC and Kafka, which would pin a virtual thread's carrier
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private boolean partitionsEnsured;
+    private boolean leaseHeld;
+    private long leaseRenewedAt;
+
+    @Value("${borrow.outbox.events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${borrow.outbox.events.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Value("${borrow.outbox.events.lease:2m}")
+    private Duration lease;
+
+    public OutboxEventRelay(OutboxEventRepository outboxEventRepository,
+                            JobPartitionLeaseRepository leaseRepository,
+                            KafkaTemplate<String, String> kafkaTemplate,
+                            PlatformTransactionManager transactionManager,
+                            InstanceId instanceId,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.leaseRepository = leaseRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.published = Counter.builder("borrow.outbox.events.published")
+                .description("Events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failed = Counter.builder("borrow.outbox.events.failed")
+                .description("Event sends that failed and will be retried")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("borrow.outbox.events.relay")
+                .description("Time to relay one outbox batch")
+                .register(meterRegistry);
+        Gauge.builder("borrow.outbox.events.lag", this, relay -> relay.lagSeconds)
+                .description("Age of the oldest event not yet relayed at the last refresh")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("borrow.outbox.events.pending", this, relay -> relay.pending)
+                .description("Events waiting in the outbox at the last refresh")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${borrow.outbox.events.poll-interval:200}")
+    public void relay() {
+        relayLock.lock();
+        try {
+            if (!holdLease()) {
+                return;
+            }
+            int relayed;
+            do {
+                relayed = batchTimer.record(this::relayBatch);
+            } while (relayed == batchSize && holdLease());
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    // Counted on its own schedule rather than on every metrics scrape
+    @Scheduled(fixedDelayString = "${borrow.outbox.events.pending-refresh-interval:15000}")
+    public void refreshPending() {
+        try {
+            pending = outboxEventRepository.countPending();
+            lagSeconds = outboxEventRepository.oldestEventAgeSeconds();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to count pending outbox events: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void releaseLease() {
+        relayLock.lock();
+        try {
+            if (leaseHeld) {
+                leaseHeld = false;
+                leaseRepository.release(JOB_NAME, PARTITION, owner);
+            }
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    /**
+     * Claims the relay lease, or renews it once a third of it has passed. Renewal happens before every batch,
+     * so a relay whose lease lapsed (e.g. after a long pause) stops before sending anything more.
+     */
+    private boolean holdLease() {
+        try {
+            if (!partitionsEnsured) {
+                leaseRepository.ensurePartitions(JOB_NAME, 1);
+                partitionsEnsured = true;
+            }
+            if (leaseHeld && System.nanoTime() - leaseRenewedAt < lease.toNanos() / 3) {
+                return true;
+            }
+            boolean held = leaseHeld
+                    ? leaseRepository.renew(JOB_NAME, PARTITION, owner, lease)
+                    : leaseRepository.claimNext(JOB_NAME, 1, owner, lease, Duration.ZERO).isPresent();
+            if (leaseHeld && !held) {
+                logger.warn("Lost the outbox relay lease, another replica relays from now on");
+            } else if (!leaseHeld && held) {
+                logger.info("Acquired the outbox relay lease");
+            }
+            leaseHeld = held;
+            leaseRenewedAt = System.nanoTime();
+            return held;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to acquire the outbox relay lease: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.findOldest(PageRequest.of(0, batchSize)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        logger.debug("Relaying {} outbox events", batch.size());
+
+        Map<String, Deque<OutboxEvent>> unsentByKey = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            unsentByKey.computeIfAbsent(event.getTopic() + '/' + event.getEventKey(), key -> new ArrayDeque<>()).add(event);
+        }
+
+        List<Long> acknowledged = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        while (!unsentByKey.isEmpty()) {
+            Map<String, CompletableFuture<SendResult<String, String>>> round = new LinkedHashMap<>();
+            unsentByKey.forEach((key, events) -> {
+                OutboxEvent event = events.peek();
+                round.put(key, kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()));
+            });
+            round.forEach((key, send) -> {
+                Deque<OutboxEvent> events = unsentByKey.get(key);
+                OutboxEvent event = events.poll();
+                if (awaitSend(send, event, deadline)) {
+                    acknowledged.add(event.getId());
+                    if (events.isEmpty()) {
+                        unsentByKey.remove(key);
+                    }
+                } else {
+                    // Later events of this key stay in the outbox and are sent after this one
+                    failed.increment();
+                    unsentByKey.remove(key);
+                }
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(acknowledged));
+        published.increment(acknowledged.size());
+        if (acknowledged.size() < batch.size()) {
+            logger.warn("Relayed {} of {} outbox events, the rest will be retried", acknowledged.size(), batch.size());
+            return 0;
+        }
+        return batch.size();
+    }
+
+    private boolean awaitSend(CompletableFuture<SendResult<String, String>> send, OutboxEvent event, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.warn("Failed to relay outbox event {} to topic {}: {}", event.getId(), event.getTopic(), e.getMessage());
+            return false;
+        }
+    }
+}
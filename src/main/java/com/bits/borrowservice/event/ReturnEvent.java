@@ -0,0 +1,23 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Payload of {@code return-events}. Timestamps are epoch milliseconds.
+ */
+public record ReturnEvent(
+        @JsonProperty("v") int schemaVersion,
+        long borrowId,
+        long userId,
+        long bookId,
+        long returnedAt,
+        long dueAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static ReturnEvent of(Borrow borrow) {
+        return new ReturnEvent(SCHEMA_VERSION, borrow.getId(), borrow.getUserId(), borrow.getBookId(),
+                System.currentTimeMillis(), EventTimestamps.toEpochMilli(borrow.getDueDate()));
+    }
+}
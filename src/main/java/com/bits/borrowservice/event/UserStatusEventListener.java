@@ -0,0 +1,45 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.client.UserStatusCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached user status when the user service announces a status change.
+ * Every replica holds its own cache, so each one consumes the topic with its own group id. The group id is
+ * derived from the host name and port, so a restarted replica reuses its group instead of orphaning it.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatusEventListener.class);
+
+    private final UserStatusCache userStatusCache;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = "${kafka.topic.user-status-events.name:user-status-events}",
+            groupId = "${kafka.topic.user-status-events.group-id-prefix:${spring.application.name}-user-status}"
+                    + "-#{@instanceId.host}-${server.port:8080}",
+            properties = "auto.offset.reset=latest")
+    public void onUserStatusEvent(String payload) {
+        try {
+            JsonNode event = objectMapper.readTree(payload);
+            JsonNode userId = event.path("userId");
+            if (!userId.canConvertToLong()) {
+                logger.warn("User status event without userId, clearing user status cache: {}", payload);
+                userStatusCache.invalidateAll();
+                return;
+            }
+            userStatusCache.invalidate(userId.asLong());
+        } catch (Exception e) {
+            logger.warn("Unreadable user status event, clearing user status cache: {}", e.getMessage());
+            userStatusCache.invalidateAll();
+        }
+    }
+}
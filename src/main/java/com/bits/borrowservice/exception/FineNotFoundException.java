@@ -0,0 +1,7 @@
+package com.bits.borrowservice.exception;
+
+public class FineNotFoundException extends BorrowServiceException {
+    public FineNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bits.borrowservice.exception;
+
+public class IdempotencyKeyInProgressException extends BorrowServiceException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
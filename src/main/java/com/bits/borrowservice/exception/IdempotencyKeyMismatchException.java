@@ -0,0 +1,7 @@
+package com.bits.borrowservice.exception;
+
+public class IdempotencyKeyMismatchException extends BorrowServiceException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bits.borrowservice.exception;
+
+public class InvalidCursorException extends BorrowServiceException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bits.borrowservice.exception;
+
+public class InvalidFineStatusException extends BorrowServiceException {
+    public InvalidFineStatusException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.BookStatusUpdate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookStatusUpdateRepository extends JpaRepository<BookStatusUpdate, Long> {
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryLock(@Param("key") long key);
+
+    // Only the latest update per book is deliverable (older ones are superseded), and never while
+    // another dispatcher still holds a claim on the same book, so deliveries per book stay ordered.
+    @Query(value = """
+            SELECT o.* FROM book_status_outbox o
+            WHERE o.next_attempt_at <= :now
+              AND NOT EXISTS (SELECT 1 FROM book_status_outbox n WHERE n.book_id = o.book_id AND n.id > o.id)
+              AND NOT EXISTS (SELECT 1 FROM book_status_outbox c WHERE c.book_id = o.book_id AND c.claimed_until > :now)
+            ORDER BY o.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<BookStatusUpdate> findDeliverable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE BookStatusUpdate u SET u.claimedUntil = :claimedUntil WHERE u.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("DELETE FROM BookStatusUpdate u WHERE u.bookId = :bookId AND u.id <= :id")
+    int deleteDeliveredUpTo(@Param("bookId") Long bookId, @Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE BookStatusUpdate u SET u.attempts = u.attempts + 1, u.nextAttemptAt = :nextAttemptAt, "
+            + "u.claimedUntil = null, u.lastError = :lastError WHERE u.id = :id")
+    int scheduleRetry(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Query(value = "SELECT COUNT(*) FROM book_status_outbox", nativeQuery = true)
+    long countPending();
+}
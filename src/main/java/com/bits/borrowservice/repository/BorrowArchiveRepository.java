@@ -0,0 +1,94 @@
+package com.bits.borrowservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves closed loans and their child rows from the hot tables into the {@code *_archive} tables.
+ * {@link #move} must run in the same transaction as the {@link #lockArchivable} call that returned the IDs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BorrowArchiveRepository {
+    // Returned before the cutoff and not holding a pending fine, which may still change
+    private static final String LOCK_ARCHIVABLE = """
+            SELECT b.id FROM borrows b
+            WHERE b.status = 'RETURNED'
+              AND b.updated_at < :cutoff
+              AND NOT EXISTS (SELECT 1 FROM fines f WHERE f.borrow_id = b.id AND f.status = 'PENDING')
+            ORDER BY b.updated_at, b.id
+            LIMIT :limit
+            FOR UPDATE OF b SKIP LOCKED
+            """;
+
+    private static final String FIND_YEARS = """
+            SELECT DISTINCT EXTRACT(YEAR FROM borrow_date)::int FROM borrows
+            WHERE status = 'RETURNED' AND updated_at < :cutoff
+            """;
+
+    // Children first: their foreign keys reference the hot borrows rows
+    private static final String[] MOVE_STATEMENTS = {
+            """
+            WITH moved AS (DELETE FROM borrow_extensions WHERE borrow_id IN (:ids) RETURNING *)
+            INSERT INTO borrow_extensions_archive SELECT * FROM moved
+            """,
+            """
+            WITH moved AS (DELETE FROM returns WHERE borrow_id IN (:ids) RETURNING *)
+            INSERT INTO returns_archive SELECT * FROM moved
+            """,
+            """
+            WITH moved AS (DELETE FROM fines WHERE borrow_id IN (:ids) RETURNING *)
+            INSERT INTO fines_archive SELECT * FROM moved
+            """,
+            """
+            WITH moved AS (DELETE FROM borrows WHERE id IN (:ids) RETURNING *)
+            INSERT INTO borrows_archive SELECT * FROM moved
+            """
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks up to {@code limit} loans that can be archived, oldest first. Loans locked by other
+     * transactions are skipped.
+     */
+    public List<Long> lockArchivable(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(LOCK_ARCHIVABLE, new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", limit), Long.class);
+    }
+
+    /**
+     * Creates the yearly archive partitions that loans returned before {@code cutoff} belong in, if missing.
+     * Attaching a partition locks the whole archive, so call this outside the transactions that move rows.
+     */
+    public void ensurePartitions(LocalDateTime cutoff) {
+        List<Integer> years = jdbcTemplate.queryForList(FIND_YEARS, Map.of("cutoff", cutoff), Integer.class);
+        for (int year : years) {
+            // Partition bounds cannot be bind parameters; the year is an integer from the database
+            jdbcTemplate.getJdbcTemplate().execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS borrows_archive_y%1$d PARTITION OF borrows_archive " +
+                    "FOR VALUES FROM ('%1$d-01-01') TO ('%2$d-01-01')", year, year + 1));
+        }
+    }
+
+    /**
+     * Moves the loans and their extensions, returns and fines to the archive tables.
+     *
+     * @return the number of loans moved
+     */
+    public int move(List<Long> borrowIds) {
+        Map<String, List<Long>> params = Map.of("ids", borrowIds);
+        int moved = 0;
+        for (String statement : MOVE_STATEMENTS) {
+            moved = jdbcTemplate.update(statement, params);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,58 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.Borrow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static com.bits.borrowservice.repository.BorrowJdbcRepository.BORROW_COLUMNS;
+import static com.bits.borrowservice.repository.BorrowJdbcRepository.BORROW_ROW_MAPPER;
+
+/**
+ * Reads {@code borrow_history} row by row for exports.
+ * <p>
+ * Statements use a fetch size of {@code borrow.export.fetch-size}; inside a transaction the PostgreSQL driver
+ * then reads through a server-side cursor, so only one fetch block is held in memory however many rows match.
+ */
+@Repository
+public class BorrowExportRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BorrowExportRepository(DataSource dataSource, @Value("${borrow.export.fetch-size:5000}") int fetchSize) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+    }
+
+    /**
+     * Passes every loan borrowed in {@code [from, to)} with the given status to {@code action}, in no particular
+     * order. Null bounds and a null status are not filtered on. Must run inside a transaction, or the driver
+     * loads the whole result before returning the first row.
+     */
+    public void forEach(LocalDateTime from, LocalDateTime to, Borrow.BorrowStatus status, Consumer<Borrow> action) {
+        // Only the filters in use are rendered, so the borrow_date bounds can prune archive partitions
+        StringBuilder sql = new StringBuilder("SELECT ").append(BORROW_COLUMNS).append(" FROM borrow_history b WHERE true");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (from != null) {
+            sql.append(" AND b.borrow_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND b.borrow_date < :to");
+            params.addValue("to", to);
+        }
+        if (status != null) {
+            sql.append(" AND b.status = :status");
+            params.addValue("status", status.name());
+        }
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            action.accept(BORROW_ROW_MAPPER.mapRow(rs, rs.getRow()));
+        });
+    }
+}
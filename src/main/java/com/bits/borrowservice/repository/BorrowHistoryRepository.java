@@ -0,0 +1,61 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.BorrowHistory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static com.bits.borrowservice.repository.BorrowRepository.RESPONSE_PROJECTION;
+
+/**
+ * Queries over hot and archived loans. Filters on {@code borrow_date} let PostgreSQL skip archive
+ * partitions outside the range. Rows are returned as {@link BorrowResponse} projections, never as entities.
+ */
+@Repository
+public interface BorrowHistoryRepository extends org.springframework.data.repository.Repository<BorrowHistory, Long> {
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.id = :id")
+    Optional<BorrowResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM BorrowHistory b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b",
+           countQuery = "SELECT COUNT(b) FROM BorrowHistory b")
+    Page<BorrowResponse> findAllResponses(Pageable pageable);
+
+    @Query(value = "SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.userId = :userId",
+           countQuery = "SELECT COUNT(b) FROM BorrowHistory b WHERE b.userId = :userId")
+    Page<BorrowResponse> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.bookId = :bookId",
+           countQuery = "SELECT COUNT(b) FROM BorrowHistory b WHERE b.bookId = :bookId")
+    Page<BorrowResponse> findResponsesByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    // Keyset scrolls: rows strictly after the (sort key, id) cursor, no OFFSET and no count query.
+    // The redundant range predicate on the sort key lets PostgreSQL use it as an index condition.
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.id > :afterId ORDER BY b.id")
+    List<BorrowResponse> scrollAll(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.userId = :userId " +
+           "AND b.borrowDate <= :borrowDate AND (b.borrowDate < :borrowDate OR b.id < :id) " +
+           "ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BorrowResponse> scrollByUserId(@Param("userId") Long userId, @Param("borrowDate") LocalDateTime borrowDate,
+                                        @Param("id") long id, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM BorrowHistory b WHERE b.bookId = :bookId " +
+           "AND b.borrowDate <= :borrowDate AND (b.borrowDate < :borrowDate OR b.id < :id) " +
+           "ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BorrowResponse> scrollByBookId(@Param("bookId") Long bookId, @Param("borrowDate") LocalDateTime borrowDate,
+                                        @Param("id") long id, Limit limit);
+}
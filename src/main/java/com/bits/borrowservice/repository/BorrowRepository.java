@@ -1,32 +1,50 @@
 package com.bits.borrowservice.repository;
 
+import com.bits.borrowservice.dto.response.BorrowResponse;
 import com.bits.borrowservice.entity.Borrow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
+    // Builds the response DTO in the query, so list endpoints skip entity materialization and dirty checking
+    String RESPONSE_PROJECTION = "new com.bits.borrowservice.dto.response.BorrowResponse(" +
+            "b.id, b.userId, b.bookId, b.borrowDate, b.dueDate, b.status, b.createdAt, b.updatedAt)";
+
+    // Row locks for returns, which must not race with each other, the overdue sweep or fine accrual on the same loan
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Borrow b WHERE b.id = :id")
+    Optional<Borrow> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Borrow b WHERE b.id IN :ids ORDER BY b.id")
+    List<Borrow> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT " + RESPONSE_PROJECTION + " FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now",
+           countQuery = "SELECT COUNT(b) FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now")
+    Page<BorrowResponse> findOverdueResponses(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Keyset scroll: rows strictly after the (due date, id) cursor, no OFFSET and no count query.
+    // The redundant range predicate on the due date lets PostgreSQL use it as an index condition.
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now " +
+           "AND b.dueDate >= :dueDate AND (b.dueDate > :dueDate OR b.id > :id) ORDER BY b.dueDate, b.id")
+    List<BorrowResponse> scrollOverdue(@Param("now") LocalDateTime now, @Param("dueDate") LocalDateTime dueDate,
+                               @Param("id") long id, Limit limit);
 
-    Page<Borrow> findByUserId(Long userId, Pageable pageable);
-    
-    Page<Borrow> findByBookId(Long bookId, Pageable pageable);
-    
-    @Query("SELECT b FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now")
-    List<Borrow> findOverdueBorrows(@Param("now") LocalDateTime now);
-    
-    @Query("SELECT b FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now")
-    Page<Borrow> findOverdueBorrows(@Param("now") LocalDateTime now, Pageable pageable);
-    
-    @Query("SELECT COUNT(b) FROM Borrow b WHERE b.userId = :userId AND b.status = 'BORROWED'")
-    long countActiveBorrowsByUserId(@Param("userId") Long userId);
-    
     @Query("SELECT COUNT(b) FROM Borrow b WHERE b.bookId = :bookId AND b.status = 'BORROWED'")
     long countActiveBorrowsByBookId(@Param("bookId") Long bookId);
 } 
\ No newline at end of file
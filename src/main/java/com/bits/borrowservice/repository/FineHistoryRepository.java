@@ -0,0 +1,15 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.FineHistory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Queries over hot and archived fines.
+ */
+@Repository
+public interface FineHistoryRepository extends org.springframework.data.repository.Repository<FineHistory, Long> {
+
+    Page<FineHistory> findByUserId(Long userId, Pageable pageable);
+}
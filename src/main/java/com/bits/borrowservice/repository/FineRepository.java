@@ -4,11 +4,30 @@ import com.bits.borrowservice.entity.Fine;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface FineRepository extends JpaRepository<Fine, Long> {
     Page<Fine> findByBorrowUserId(Long userId, Pageable pageable);
     
     Page<Fine> findByStatus(Fine.FineStatus status, Pageable pageable);
-} 
\ No newline at end of file
+
+    @Query("SELECT f FROM Fine f JOIN FETCH f.borrow WHERE f.id = :id")
+    Optional<Fine> findWithBorrowById(@Param("id") Long id);
+
+    /**
+     * Moves a PENDING fine to {@code status}. The condition makes concurrent payments and waivers of the
+     * same fine settle it once.
+     *
+     * @return 1 if the fine was settled, 0 if it does not exist or is no longer pending
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fine f SET f.status = :status, f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id = :id AND f.status = com.bits.borrowservice.entity.Fine.FineStatus.PENDING")
+    int settle(@Param("id") Long id, @Param("status") Fine.FineStatus status);
+}
@@ -0,0 +1,116 @@
+package com.bits.borrowservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Idempotency keys of borrow, return and extension requests in {@code idempotency_keys}. {@link #claim} and
+ * {@link #complete} must run in the transaction of the operation the key protects.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+    // An expired key is taken over; a live one, or one still being claimed by another transaction, is not.
+    // Waits on the unique index while another transaction holds an uncommitted claim for the key.
+    private static final String CLAIM = """
+            INSERT INTO idempotency_keys (idempotency_key, request_fingerprint, status, expires_at)
+            VALUES (:key, :fingerprint, 'IN_PROGRESS', :expiresAt)
+            ON CONFLICT (idempotency_key) DO UPDATE
+            SET request_fingerprint = EXCLUDED.request_fingerprint, status = 'IN_PROGRESS', response = NULL,
+                created_at = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at < :now
+            """;
+
+    private static final String CURRENT_LOCK_TIMEOUT = "SELECT current_setting('lock_timeout')";
+
+    // Transaction-local, so the setting never outlives the transaction on a pooled connection
+    private static final String SET_LOCK_TIMEOUT = "SELECT set_config('lock_timeout', :timeout, true)";
+
+    private static final String COMPLETE = """
+            UPDATE idempotency_keys SET status = 'COMPLETED', response = :response
+            WHERE idempotency_key = :key
+            """;
+
+    private static final String FIND = """
+            SELECT request_fingerprint, status, response FROM idempotency_keys WHERE idempotency_key = :key
+            """;
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM idempotency_keys WHERE idempotency_key IN (
+                SELECT idempotency_key FROM idempotency_keys
+                WHERE expires_at < :now
+                LIMIT :limit
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Records {@code key} as in progress until {@code expiresAt}, taking it over if it expired before {@code now}.
+     * Waits at most {@code lockTimeout} for another transaction's uncommitted claim of the key; the rest of the
+     * transaction keeps its previous lock timeout.
+     *
+     * @return whether the key was free; if not, {@link #find} returns the request that holds it
+     * @throws org.springframework.dao.PessimisticLockingFailureException if the other claim was not committed or
+     *                                                                    rolled back within {@code lockTimeout}
+     */
+    public boolean claim(String key, String fingerprint, LocalDateTime now, LocalDateTime expiresAt,
+                         Duration lockTimeout) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("fingerprint", fingerprint)
+                .addValue("now", now)
+                .addValue("expiresAt", expiresAt);
+        String previous = jdbcTemplate.getJdbcTemplate().queryForObject(CURRENT_LOCK_TIMEOUT, String.class);
+        setLockTimeout(lockTimeout.toMillis() + "ms");
+        boolean claimed = jdbcTemplate.update(CLAIM, params) == 1;
+        setLockTimeout(previous);
+        return claimed;
+    }
+
+    private void setLockTimeout(String timeout) {
+        jdbcTemplate.queryForObject(SET_LOCK_TIMEOUT, new MapSqlParameterSource("timeout", timeout), String.class);
+    }
+
+    public void complete(String key, String response) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("response", response);
+        jdbcTemplate.update(COMPLETE, params);
+    }
+
+    public Optional<StoredKey> find(String key) {
+        return jdbcTemplate.query(FIND, new MapSqlParameterSource("key", key), (rs, rowNum) ->
+                new StoredKey(rs.getString("request_fingerprint"), rs.getString("status"), rs.getString("response")))
+                .stream().findFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} keys expired before {@code now}.
+     *
+     * @return the number deleted
+     */
+    public int deleteExpired(LocalDateTime now, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("limit", limit);
+        return jdbcTemplate.update(DELETE_EXPIRED, params);
+    }
+
+    /**
+     * A claimed key: the fingerprint of the request that claimed it, its status and, once completed, the
+     * response as JSON.
+     */
+    public record StoredKey(String fingerprint, String status, String response) {
+
+        public boolean isCompleted() {
+            return "COMPLETED".equals(status);
+        }
+    }
+}
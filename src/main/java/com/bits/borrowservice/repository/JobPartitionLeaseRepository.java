@@ -0,0 +1,105 @@
+package com.bits.borrowservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Leases on the partitions of a scheduled job, stored in {@code job_partition_leases}.
+ * Lease times are computed with the database clock so replicas with skewed clocks agree on expiry.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobPartitionLeaseRepository {
+    private static final String ENSURE_PARTITIONS = """
+            INSERT INTO job_partition_leases (job_name, partition_no)
+            SELECT :job, p FROM generate_series(0, :count - 1) AS p
+            ON CONFLICT (job_name, partition_no) DO NOTHING
+            """;
+
+    private static final String CLAIM_NEXT = """
+            UPDATE job_partition_leases l
+            SET owner = :owner, lease_until = now() + make_interval(secs => :leaseSeconds), run_started_at = now()
+            WHERE (l.job_name, l.partition_no) = (
+                SELECT job_name, partition_no FROM job_partition_leases
+                WHERE job_name = :job
+                  AND partition_no < :count
+                  AND (lease_until IS NULL OR lease_until < now())
+                  AND (completed_at IS NULL OR completed_at < now() - make_interval(secs => :minIntervalSeconds))
+                ORDER BY partition_no
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING l.partition_no
+            """;
+
+    private static final String RENEW = """
+            UPDATE job_partition_leases SET lease_until = now() + make_interval(secs => :leaseSeconds)
+            WHERE job_name = :job AND partition_no = :partition AND owner = :owner
+            """;
+
+    private static final String COMPLETE = """
+            UPDATE job_partition_leases SET owner = NULL, lease_until = NULL, completed_at = now()
+            WHERE job_name = :job AND partition_no = :partition AND owner = :owner
+            """;
+
+    // Keeps lease_until as a retry time, so no replica claims the partition again before it
+    private static final String RELEASE = """
+            UPDATE job_partition_leases SET owner = NULL, lease_until = now() + make_interval(secs => :retryDelaySeconds)
+            WHERE job_name = :job AND partition_no = :partition AND owner = :owner
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void ensurePartitions(String job, int count) {
+        jdbcTemplate.update(ENSURE_PARTITIONS, new MapSqlParameterSource()
+                .addValue("job", job)
+                .addValue("count", count));
+    }
+
+    /**
+     * Leases the first partition that is neither leased nor already completed in the current run
+     * (completed less than {@code minInterval} ago).
+     */
+    public OptionalInt claimNext(String job, int count, String owner, Duration lease, Duration minInterval) {
+        List<Integer> claimed = jdbcTemplate.queryForList(CLAIM_NEXT, new MapSqlParameterSource()
+                .addValue("job", job)
+                .addValue("count", count)
+                .addValue("owner", owner)
+                .addValue("leaseSeconds", lease.toSeconds())
+                .addValue("minIntervalSeconds", minInterval.toSeconds()), Integer.class);
+        return claimed.isEmpty() ? OptionalInt.empty() : OptionalInt.of(claimed.get(0));
+    }
+
+    public boolean renew(String job, int partition, String owner, Duration lease) {
+        return jdbcTemplate.update(RENEW, params(job, partition, owner).addValue("leaseSeconds", lease.toSeconds())) == 1;
+    }
+
+    public void complete(String job, int partition, String owner) {
+        jdbcTemplate.update(COMPLETE, params(job, partition, owner));
+    }
+
+    public void release(String job, int partition, String owner) {
+        release(job, partition, owner, Duration.ZERO);
+    }
+
+    /**
+     * Gives up the lease without completing the partition. It can be claimed again once {@code retryDelay}
+     * has passed, so a partition that keeps failing is not retried in a tight loop.
+     */
+    public void release(String job, int partition, String owner, Duration retryDelay) {
+        jdbcTemplate.update(RELEASE, params(job, partition, owner).addValue("retryDelaySeconds", retryDelay.toSeconds()));
+    }
+
+    private static MapSqlParameterSource params(String job, int partition, String owner) {
+        return new MapSqlParameterSource()
+                .addValue("job", job)
+                .addValue("partition", partition)
+                .addValue("owner", owner);
+    }
+}
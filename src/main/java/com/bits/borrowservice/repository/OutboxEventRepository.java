@@ -0,0 +1,22 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+    List<OutboxEvent> findOldest(Pageable pageable);
+
+    @Query(value = "SELECT COALESCE(EXTRACT(EPOCH FROM (now() - MIN(created_at))), 0) FROM event_outbox", nativeQuery = true)
+    double oldestEventAgeSeconds();
+
+    @Query(value = "SELECT COUNT(*) FROM event_outbox", nativeQuery = true)
+    long countPending();
+}
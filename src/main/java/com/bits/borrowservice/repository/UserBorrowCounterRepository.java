@@ -0,0 +1,139 @@
+package com.bits.borrowservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user count of BORROWED loans in {@code user_borrow_counters}. Changes must run in the same
+ * transaction as the borrow status change they account for.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBorrowCounterRepository {
+    // The WHERE on the conflict branch makes limit check and increment one atomic statement: a concurrent
+    // borrow by the same user waits on the row lock and then re-checks the limit against the new count.
+    private static final String TRY_INCREMENT = """
+            INSERT INTO user_borrow_counters (user_id, active_count) VALUES (:userId, 1)
+            ON CONFLICT (user_id) DO UPDATE
+            SET active_count = user_borrow_counters.active_count + 1, updated_at = now()
+            WHERE user_borrow_counters.active_count < :max
+            """;
+
+    private static final String INCREMENT_BY = """
+            UPDATE user_borrow_counters SET active_count = active_count + :count, updated_at = now()
+            WHERE user_id = :userId
+            """;
+
+    private static final String DECREMENT = """
+            UPDATE user_borrow_counters
+            SET active_count = GREATEST(active_count - :count, 0), updated_at = now()
+            WHERE user_id = :userId
+            """;
+
+    private static final String FIND_DRIFTED = """
+            SELECT COALESCE(c.user_id, a.user_id)
+            FROM user_borrow_counters c
+            FULL JOIN (SELECT user_id, COUNT(*) AS active FROM borrows WHERE status = 'BORROWED' GROUP BY user_id) a
+                ON a.user_id = c.user_id
+            WHERE COALESCE(c.active_count, 0) <> COALESCE(a.active, 0)
+            """;
+
+    private static final String ENSURE_ROW = """
+            INSERT INTO user_borrow_counters (user_id, active_count) VALUES (:userId, 0)
+            ON CONFLICT (user_id) DO NOTHING
+            """;
+
+    private static final String LOCK = "SELECT active_count FROM user_borrow_counters WHERE user_id = :userId FOR UPDATE";
+
+    private static final String RECOUNT = """
+            UPDATE user_borrow_counters
+            SET active_count = (SELECT COUNT(*) FROM borrows WHERE user_id = :userId AND status = 'BORROWED'),
+                updated_at = now()
+            WHERE user_id = :userId
+            RETURNING active_count
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts a new active borrow for the user unless they already have {@code max}.
+     *
+     * @return whether the borrow was counted
+     */
+    public boolean tryIncrement(long userId, int max) {
+        if (max < 1) {
+            return false;
+        }
+        return jdbcTemplate.update(TRY_INCREMENT, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("max", max)) == 1;
+    }
+
+    /**
+     * Counts up to {@code requested} new active borrows for the user, as many as fit under {@code max}.
+     * The counter row stays locked until the transaction ends.
+     *
+     * @return how many were counted
+     */
+    public int reserve(long userId, int requested, int max) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        jdbcTemplate.update(ENSURE_ROW, params);
+        Integer current = jdbcTemplate.queryForObject(LOCK, params, Integer.class);
+        int granted = Math.max(0, Math.min(requested, max - current));
+        if (granted > 0) {
+            jdbcTemplate.update(INCREMENT_BY, params.addValue("count", granted));
+        }
+        return granted;
+    }
+
+    public void decrement(long userId) {
+        jdbcTemplate.update(DECREMENT, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("count", 1));
+    }
+
+    /**
+     * Applies several decrements in one batch, e.g. for a chunk of loans that became overdue.
+     * Users are updated in ID order so concurrent batches lock rows in the same order.
+     */
+    public void decrementAll(Map<Long, Integer> countsByUserId) {
+        SqlParameterSource[] batch = countsByUserId.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("userId", entry.getKey())
+                        .addValue("count", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(DECREMENT, batch);
+    }
+
+    /**
+     * Users whose counter does not match their BORROWED loans. The snapshot may include users with a borrow
+     * in flight; {@link #recount} settles each under the counter's row lock.
+     */
+    public List<Long> findDrifted() {
+        return jdbcTemplate.queryForList(FIND_DRIFTED, Map.of(), Long.class);
+    }
+
+    /**
+     * Resets the user's counter to their BORROWED loans. Locks the counter row first, so borrows and returns
+     * in flight for the user have committed before the count is taken.
+     *
+     * @return the count before and after
+     */
+    public Recount recount(long userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        jdbcTemplate.update(ENSURE_ROW, params);
+        Integer previous = jdbcTemplate.queryForObject(LOCK, params, Integer.class);
+        Integer corrected = jdbcTemplate.queryForObject(RECOUNT, params, Integer.class);
+        return new Recount(previous, corrected);
+    }
+
+    public record Recount(int previous, int corrected) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.dto.response.FineBalanceResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-user sum and number of PENDING fines in {@code user_fine_balances}. Changes must run in the same
+ * transaction as the fine change they account for; accrual updates the balances itself, see
+ * {@link FineAccrualRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserFineBalanceRepository {
+    // Amount and count may be negative; the balance is floored at zero rather than failing the fine change
+    private static final String ADJUST = """
+            INSERT INTO user_fine_balances (user_id, outstanding, pending_count)
+            VALUES (:userId, GREATEST(:amount, 0), GREATEST(:count, 0))
+            ON CONFLICT (user_id) DO UPDATE
+            SET outstanding = GREATEST(user_fine_balances.outstanding + :amount, 0),
+                pending_count = GREATEST(user_fine_balances.pending_count + :count, 0),
+                updated_at = now()
+            """;
+
+    private static final String FIND = """
+            SELECT user_id, outstanding, pending_count, updated_at FROM user_fine_balances WHERE user_id = :userId
+            """;
+
+    private static final String FIND_DRIFTED = """
+            SELECT COALESCE(ub.user_id, p.user_id)
+            FROM user_fine_balances ub
+            FULL JOIN (
+                SELECT b.user_id, SUM(f.amount) AS outstanding, COUNT(*) AS pending_count
+                FROM fines f JOIN borrows b ON b.id = f.borrow_id
+                WHERE f.status = 'PENDING'
+                GROUP BY b.user_id
+            ) p ON p.user_id = ub.user_id
+            WHERE COALESCE(ub.outstanding, 0) <> COALESCE(p.outstanding, 0)
+               OR COALESCE(ub.pending_count, 0) <> COALESCE(p.pending_count, 0)
+            """;
+
+    private static final String ENSURE_ROW = """
+            INSERT INTO user_fine_balances (user_id) VALUES (:userId)
+            ON CONFLICT (user_id) DO NOTHING
+            """;
+
+    private static final String LOCK = "SELECT outstanding FROM user_fine_balances WHERE user_id = :userId FOR UPDATE";
+
+    private static final String RECOUNT = """
+            UPDATE user_fine_balances ub
+            SET outstanding = p.outstanding, pending_count = p.pending_count, updated_at = now()
+            FROM (
+                SELECT COALESCE(SUM(f.amount), 0) AS outstanding, COUNT(*) AS pending_count
+                FROM fines f JOIN borrows b ON b.id = f.borrow_id
+                WHERE b.user_id = :userId AND f.status = 'PENDING'
+            ) p
+            WHERE ub.user_id = :userId
+            RETURNING ub.outstanding
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds {@code amount} and {@code count} pending fines to the user's balance; negative values subtract.
+     */
+    public void adjust(long userId, BigDecimal amount, int count) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("amount", amount)
+                .addValue("count", count);
+        jdbcTemplate.update(ADJUST, params);
+    }
+
+    public Optional<FineBalanceResponse> find(long userId) {
+        return jdbcTemplate.query(FIND, new MapSqlParameterSource("userId", userId), (rs, rowNum) ->
+                new FineBalanceResponse(
+                        rs.getLong("user_id"),
+                        rs.getBigDecimal("outstanding"),
+                        rs.getInt("pending_count"),
+                        rs.getObject("updated_at", LocalDateTime.class)))
+                .stream().findFirst();
+    }
+
+    /**
+     * Users whose balance does not match their PENDING fines. The snapshot may include users with a fine
+     * change in flight; {@link #recount} settles each under the balance's row lock.
+     */
+    public List<Long> findDrifted() {
+        return jdbcTemplate.queryForList(FIND_DRIFTED, Map.of(), Long.class);
+    }
+
+    /**
+     * Resets the user's balance to their PENDING fines. Locks the balance row first, so fine changes in flight
+     * for the user have committed before the sum is taken.
+     *
+     * @return the outstanding amount before and after
+     */
+    public Recount recount(long userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        jdbcTemplate.update(ENSURE_ROW, params);
+        BigDecimal previous = jdbcTemplate.queryForObject(LOCK, params, BigDecimal.class);
+        BigDecimal corrected = jdbcTemplate.queryForObject(RECOUNT, params, BigDecimal.class);
+        return new Recount(previous, corrected);
+    }
+
+    public record Recount(BigDecimal previous, BigDecimal corrected) {
+    }
+}
@@ -2,12 +2,15 @@ package com.bits.borrowservice.security;
 
 import com.bits.borrowservice.client.UserServiceClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
@@ -22,6 +25,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,10 +36,20 @@ import java.util.Map;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserServiceClient userServiceClient;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserDetailsService userDetailsService;
     private final ObjectMapper objectMapper;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
+    // "local" verifies signature and expiry in-process, "remote" delegates every request to the user service
+    @Value("${jwt.validation-mode:local}")
+    private String validationMode;
+
+    // In local mode, additionally ask the user service about tokens not yet in the cache (revocation check)
+    @Value("${jwt.revocation-check.enabled:false}")
+    private boolean revocationCheckEnabled;
+
     // List of paths that should bypass authentication
     private static final String[] PUBLIC_PATHS = {
             "/actuator/**",
@@ -77,13 +92,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             log.info("Validating token for path: {}", path);
-            if (!userServiceClient.validateToken(jwt)) {
+            String subject = verifiedSubject(jwt);
+            if (subject == null) {
                 log.warn("Invalid token for path: {}", path);
                 throw new BadCredentialsException("Invalid token");
             }
 
             log.info("Token valid, loading user details");
-            UserDetails userDetails = userDetailsService.loadUserByUsername("authenticated-user");
+            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
             var authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -108,6 +124,56 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Subject of {@code jwt} if the token is valid and names one, otherwise {@code null}.
+     */
+    private String verifiedSubject(String jwt) {
+        if ("remote".equalsIgnoreCase(validationMode)) {
+            // The user service vouches for the token, which need not be signed with our key
+            return userServiceClient.validateToken(jwt) ? unverifiedSubject(jwt) : null;
+        }
+
+        String cached = verifiedTokenCache.getSubject(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Local token verification failed: {}", e.getMessage());
+            return null;
+        }
+        if (!StringUtils.hasText(claims.getSubject())) {
+            log.debug("Token has no subject");
+            return null;
+        }
+
+        if (revocationCheckEnabled && !userServiceClient.validateToken(jwt)) {
+            log.debug("Token rejected by user service revocation check");
+            return null;
+        }
+
+        Date expiration = claims.getExpiration();
+        verifiedTokenCache.put(jwt, claims.getSubject(), expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        return claims.getSubject();
+    }
+
+    private String unverifiedSubject(String jwt) {
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            String subject = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1])).path("sub").asText(null);
+            return StringUtils.hasText(subject) ? subject : null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not read the token subject: {}", e.getMessage());
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,86 @@
+package com.bits.borrowservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of tokens that already passed verification, keyed by the raw token, with the subject they
+ * were issued to. Each entry expires at the token's own {@code exp} claim or after {@code jwt.cache.max-ttl},
+ * whichever comes first, so a cached token is never accepted past its expiry.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Cache<String, Verified> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${jwt.cache.max-ttl:5m}") Duration maxTtl,
+                              MeterRegistry meterRegistry) {
+        logger.debug("Creating verified token cache with maximum size {} and max TTL {}", maximumSize, maxTtl);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maxTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt-verified-tokens");
+    }
+
+    public boolean isVerified(String token) {
+        return getSubject(token) != null;
+    }
+
+    /**
+     * Subject of {@code token} if it is cached and not yet expired, otherwise {@code null}.
+     */
+    public String getSubject(String token) {
+        Verified verified = cache.getIfPresent(token);
+        return verified != null && verified.expiresAtMillis() > System.currentTimeMillis() ? verified.subject() : null;
+    }
+
+    public void put(String token, String subject, long expiresAtMillis) {
+        if (expiresAtMillis > System.currentTimeMillis()) {
+            cache.put(token, new Verified(subject, expiresAtMillis));
+        }
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    private record Verified(String subject, long expiresAtMillis) {
+    }
+
+    private static final class TokenExpiry implements Expiry<String, Verified> {
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, Verified verified, long currentTime) {
+            long remainingNanos = Duration.ofMillis(verified.expiresAtMillis() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Verified verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Verified verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
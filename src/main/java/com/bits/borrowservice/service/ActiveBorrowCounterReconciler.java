@@ -0,0 +1,83 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.UserBorrowCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Repairs drift between {@code user_borrow_counters} and the BORROWED loans in {@code borrows}, e.g. after
+ * manual data fixes. Runs on one replica per schedule, which takes the job's single lease partition.
+ */
+@Service
+public class ActiveBorrowCounterReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveBorrowCounterReconciler.class);
+    private static final String JOB_NAME = "active-borrow-reconcile";
+    private static final int PARTITION = 0;
+
+    private final UserBorrowCounterRepository counterRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Counter repaired;
+
+    @Value("${borrow.active-counter.reconcile.lease:10m}")
+    private Duration lease;
+
+    @Value("${borrow.active-counter.reconcile.min-interval:1h}")
+    private Duration minInterval;
+
+    public ActiveBorrowCounterReconciler(UserBorrowCounterRepository counterRepository,
+                                         JobPartitionLeaseRepository leaseRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         InstanceId instanceId,
+                                         MeterRegistry meterRegistry) {
+        this.counterRepository = counterRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.repaired = Counter.builder("borrow.active.counter.repaired")
+                .description("Per-user active borrow counters corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${borrow.active-counter.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        leaseRepository.ensurePartitions(JOB_NAME, 1);
+        if (leaseRepository.claimNext(JOB_NAME, 1, owner, lease, minInterval).isEmpty()) {
+            logger.debug("Active borrow counter reconciliation already running or done on another replica");
+            return;
+        }
+
+        try {
+            List<Long> drifted = counterRepository.findDrifted();
+            int corrected = 0;
+            for (Long userId : drifted) {
+                UserBorrowCounterRepository.Recount recount =
+                        transactionTemplate.execute(status -> counterRepository.recount(userId));
+                if (recount.previous() != recount.corrected()) {
+                    logger.warn("Corrected active borrow counter for user {} from {} to {}",
+                            userId, recount.previous(), recount.corrected());
+                    repaired.increment();
+                    corrected++;
+                }
+            }
+            leaseRepository.complete(JOB_NAME, PARTITION, owner);
+            logger.info("Active borrow counter reconciliation checked {} users and corrected {}", drifted.size(), corrected);
+        } catch (RuntimeException e) {
+            logger.error("Active borrow counter reconciliation failed: {}", e.getMessage(), e);
+            leaseRepository.release(JOB_NAME, PARTITION, owner);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.Borrow;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded near-cache of the newest page of each book's borrow history, which the catalogue requests for every
+ * book detail page.
+ * <p>
+ * Write paths on this replica apply their committed changes to cached snapshots in place; other replicas drop
+ * their copies when the change is announced on {@code borrow-cache-invalidations}. The age of every snapshot
+ * served is recorded in {@code borrow.book-cache.age}. Loads run on the calling thread outside the cache's
+ * internal locks, see {@link CallerLoads}.
+ */
+@Component
+public class BookBorrowCache {
+    private static final Logger logger = LoggerFactory.getLogger(BookBorrowCache.class);
+
+    /** Order of the cached page: newest loan first. */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("borrowDate"), Sort.Order.desc("id"));
+    private static final Comparator<BorrowResponse> NEWEST_FIRST_ORDER = Comparator
+            .comparing(BorrowResponse::getBorrowDate).thenComparing(BorrowResponse::getId).reversed();
+
+    private final AsyncCache<Long, Snapshot> cache;
+    private final int pageSize;
+    private final Timer snapshotAge;
+
+    public BookBorrowCache(@Value("${borrow.book-cache.ttl:10m}") Duration ttl,
+                           @Value("${borrow.book-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${borrow.book-cache.page-size:20}") int pageSize,
+                           MeterRegistry meterRegistry) {
+        this.pageSize = pageSize;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-borrows");
+        Gauge.builder("borrow.book-cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of book history lookups answered from the near-cache since startup")
+                .register(meterRegistry);
+        this.snapshotAge = Timer.builder("borrow.book-cache.age")
+                .description("Age of the book history snapshots served from the near-cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A book's newest loans, at most {@link #getPageSize()}, its total number of loans and its loan in
+     * progress (BORROWED or OVERDUE), if any. {@code loadedAt} is when it was read from the database; updates
+     * applied in place keep it.
+     */
+    public record Snapshot(List<BorrowResponse> newest, long total, BorrowResponse activeLoan, long loadedAt) {
+
+        static Snapshot of(List<BorrowResponse> newest, long total) {
+            return of(newest, total, System.currentTimeMillis());
+        }
+
+        static Snapshot of(List<BorrowResponse> newest, long total, long loadedAt) {
+            BorrowResponse latest = newest.isEmpty() ? null : newest.get(0);
+            BorrowResponse active = latest != null && latest.getStatus() != Borrow.BorrowStatus.RETURNED ? latest : null;
+            return new Snapshot(List.copyOf(newest), total, active, loadedAt);
+        }
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the cached snapshot of a book, loading it with {@code loader} on a miss.
+     * Concurrent misses for the same book share one load.
+     */
+    public Snapshot get(Long bookId, Function<Long, Snapshot> loader) {
+        Snapshot snapshot = CallerLoads.get(cache, bookId, loader);
+        snapshotAge.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - snapshot.loadedAt())));
+        return snapshot;
+    }
+
+    /**
+     * Applies committed changes to the snapshots of their books, if cached: a new loan is added to the
+     * newest page, a changed loan replaces its old state. Snapshots not cached are left to the next load.
+     */
+    void apply(Collection<Borrow> borrows) {
+        for (Borrow borrow : borrows) {
+            CallerLoads.replaceIfPresent(cache, borrow.getBookId(), snapshot -> apply(snapshot, BorrowResponse.fromEntity(borrow)));
+        }
+    }
+
+    private Snapshot apply(Snapshot snapshot, BorrowResponse changed) {
+        List<BorrowResponse> newest = new ArrayList<>(snapshot.newest());
+        long total = snapshot.total();
+        int index = indexOf(newest, changed.getId());
+        if (index >= 0) {
+            newest.set(index, changed);
+        } else if (newest.size() < pageSize || NEWEST_FIRST_ORDER.compare(changed, newest.get(newest.size() - 1)) < 0) {
+            // The page holds every loan in its range, so a loan that falls in the range and is missing is new
+            newest.add(changed);
+            newest.sort(NEWEST_FIRST_ORDER);
+            if (newest.size() > pageSize) {
+                newest.remove(newest.size() - 1);
+            }
+            total++;
+        } else {
+            // An older loan outside the cached page; the active loan is always the newest, so nothing changes
+            return snapshot;
+        }
+        logger.debug("Updated cached history of book {} with borrow {}", changed.getBookId(), changed.getId());
+        return Snapshot.of(newest, total, snapshot.loadedAt());
+    }
+
+    private static int indexOf(List<BorrowResponse> borrows, Long borrowId) {
+        for (int i = 0; i < borrows.size(); i++) {
+            if (borrows.get(i).getId().equals(borrowId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void invalidate(Long bookId) {
+        logger.debug("Invalidating cached history of book ID: {}", bookId);
+        cache.synchronous().invalidate(bookId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,209 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.client.BookServiceClient;
+import com.bits.borrowservice.config.TaskExecutors;
+import com.bits.borrowservice.entity.BookStatusUpdate;
+import com.bits.borrowservice.repository.BookStatusUpdateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers book status changes recorded in {@code book_status_outbox} to the book service.
+ * <p>
+ * Rows are written by {@link #enqueue(Long, String)} inside the borrow/return transaction, so no database
+ * connection is held across the HTTP call. The dispatcher claims the latest pending update per book in a
+ * short transaction, delivers without a transaction, and then deletes the delivered update together with
+ * every older update for the same book. Failed deliveries are retried with exponential backoff, except
+ * when the book service rejects the update with a 4xx other than 408 or 429: retrying cannot change that
+ * answer, so the update is dropped and logged instead of holding up the book forever.
+ */
+@Service
+public class BookStatusOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BookStatusOutboxDispatcher.class);
+    private static final long CLAIM_LOCK_KEY = "book_status_outbox".hashCode();
+
+    private final BookStatusUpdateRepository bookStatusUpdateRepository;
+    private final BookServiceClient bookServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor deliveryExecutor;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dropped;
+    private volatile long pending;
+
+    @Value("${borrow.outbox.book-status.batch-size:100}")
+    private int batchSize;
+
+    @Value("${borrow.outbox.book-status.claim-timeout:30s}")
+    private Duration claimTimeout;
+
+    @Value("${borrow.outbox.book-status.backoff.initial:1s}")
+    private Duration initialBackoff;
+
+    @Value("${borrow.outbox.book-status.backoff.max:5m}")
+    private Duration maxBackoff;
+
+    public BookStatusOutboxDispatcher(BookStatusUpdateRepository bookStatusUpdateRepository,
+                                      BookServiceClient bookServiceClient,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      Environment environment,
+                                      @Value("${borrow.outbox.book-status.delivery-concurrency:8}") int deliveryConcurrency) {
+        this.bookStatusUpdateRepository = bookStatusUpdateRepository;
+        this.bookServiceClient = bookServiceClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.deliveryExecutor = TaskExecutors.create(environment, "book-status-outbox-", deliveryConcurrency, -1);
+
+        this.delivered = Counter.builder("borrow.outbox.book-status.delivered").register(meterRegistry);
+        this.failed = Counter.builder("borrow.outbox.book-status.failed").register(meterRegistry);
+        this.dropped = Counter.builder("borrow.outbox.book-status.dropped")
+                .description("Book status updates rejected by the book service and not retried")
+                .register(meterRegistry);
+        Gauge.builder("borrow.outbox.book-status.pending", this, dispatcher -> dispatcher.pending)
+                .description("Book status updates waiting for delivery at the last refresh")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        TaskExecutors.shutdown(deliveryExecutor);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long bookId, String status) {
+        logger.debug("Recording book status update for book ID: {} to status: {}", bookId, status);
+        BookStatusUpdate update = new BookStatusUpdate();
+        update.setBookId(bookId);
+        update.setStatus(status);
+        update.setNextAttemptAt(LocalDateTime.now());
+        bookStatusUpdateRepository.save(update);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(Collection<Long> bookIds, String status) {
+        logger.debug("Recording book status updates for {} books to status: {}", bookIds.size(), status);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookStatusUpdate> updates = bookIds.stream()
+                .map(bookId -> {
+                    BookStatusUpdate update = new BookStatusUpdate();
+                    update.setBookId(bookId);
+                    update.setStatus(status);
+                    update.setNextAttemptAt(now);
+                    return update;
+                })
+                .toList();
+        bookStatusUpdateRepository.saveAll(updates);
+    }
+
+    @Scheduled(fixedDelayString = "${borrow.outbox.book-status.poll-interval:500}")
+    public void dispatch() {
+        List<BookStatusUpdate> claimed;
+        do {
+            claimed = claimBatch();
+            if (claimed.isEmpty()) {
+                return;
+            }
+            logger.debug("Delivering {} book status updates", claimed.size());
+
+            CompletableFuture<?>[] deliveries = claimed.stream()
+                    .map(update -> CompletableFuture.runAsync(() -> deliver(update), deliveryExecutor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(deliveries).join();
+        } while (claimed.size() == batchSize);
+    }
+
+    // Counted on its own schedule rather than on every metrics scrape
+    @Scheduled(fixedDelayString = "${borrow.outbox.book-status.pending-refresh-interval:15000}")
+    public void refreshPending() {
+        try {
+            pending = bookStatusUpdateRepository.countPending();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to count pending book status updates: {}", e.getMessage());
+        }
+    }
+
+    private List<BookStatusUpdate> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            // Claims are serialized across replicas so two dispatchers never hold updates for the same book
+            if (!bookStatusUpdateRepository.tryAdvisoryLock(CLAIM_LOCK_KEY)) {
+                return List.<BookStatusUpdate>of();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<BookStatusUpdate> deliverable = bookStatusUpdateRepository.findDeliverable(now, batchSize);
+            if (!deliverable.isEmpty()) {
+                bookStatusUpdateRepository.claim(
+                        deliverable.stream().map(BookStatusUpdate::getId).toList(), now.plus(claimTimeout));
+            }
+            return deliverable;
+        });
+    }
+
+    private void deliver(BookStatusUpdate update) {
+        try {
+            bookServiceClient.updateBookStatus(update.getBookId(), update.getStatus());
+            transactionTemplate.executeWithoutResult(status ->
+                    bookStatusUpdateRepository.deleteDeliveredUpTo(update.getBookId(), update.getId()));
+            delivered.increment();
+        } catch (Exception e) {
+            if (isRejected(e)) {
+                drop(update, e);
+            } else {
+                scheduleRetry(update, e);
+            }
+        }
+    }
+
+    private void drop(BookStatusUpdate update, Exception e) {
+        dropped.increment();
+        logger.error("Book service rejected status {} for book ID {} (attempt {}), dropping the update: {}",
+                update.getStatus(), update.getBookId(), update.getAttempts() + 1, e.getMessage());
+        // Older updates for the book are superseded by this one, so they go with it
+        transactionTemplate.executeWithoutResult(status ->
+                bookStatusUpdateRepository.deleteDeliveredUpTo(update.getBookId(), update.getId()));
+    }
+
+    private void scheduleRetry(BookStatusUpdate update, Exception e) {
+        failed.increment();
+        Duration backoff = backoffFor(update.getAttempts());
+        logger.warn("Failed to deliver status {} for book ID {} (attempt {}), retrying in {}: {}",
+                update.getStatus(), update.getBookId(), update.getAttempts() + 1, backoff, e.getMessage());
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        transactionTemplate.executeWithoutResult(status -> bookStatusUpdateRepository.scheduleRetry(
+                update.getId(), LocalDateTime.now().plus(backoff), error.substring(0, Math.min(error.length(), 500))));
+    }
+
+    // A 4xx will be answered the same way on every retry, except timeouts and rate limiting
+    private static boolean isRejected(Exception e) {
+        return e instanceof HttpClientErrorException clientError
+                && clientError.getStatusCode().value() != HttpStatus.REQUEST_TIMEOUT.value()
+                && clientError.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private Duration backoffFor(int attempts) {
+        long factor = 1L << Math.min(attempts, 20);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,109 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.BorrowArchiveRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves loans returned more than {@code borrow.archive.retention} ago, with their returns, fines and
+ * extensions, from the hot tables into the archive tables. Loans with a pending fine stay hot.
+ * <p>
+ * Runs on one replica per schedule (single job lease) and works in batches of {@code borrow.archive.batch-size},
+ * each committed on its own, so locks are short and a failed run resumes where it stopped.
+ */
+@Service
+public class BorrowArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowArchiver.class);
+    private static final String JOB_NAME = "borrow-archive";
+    private static final int PARTITION = 0;
+
+    private final BorrowArchiveRepository archiveRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Counter archived;
+    private final Timer runTimer;
+
+    @Value("${borrow.archive.retention:30d}")
+    private Duration retention;
+
+    @Value("${borrow.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${borrow.archive.lease:10m}")
+    private Duration lease;
+
+    @Value("${borrow.archive.min-interval:1h}")
+    private Duration minInterval;
+
+    public BorrowArchiver(BorrowArchiveRepository archiveRepository,
+                          JobPartitionLeaseRepository leaseRepository,
+                          PlatformTransactionManager transactionManager,
+                          InstanceId instanceId,
+                          MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.archived = Counter.builder("borrow.archive.rows")
+                .description("Loans moved to the archive")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("borrow.archive.run")
+                .description("Duration of one archival run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${borrow.archive.cron:0 0 2 * * *}")
+    public void archive() {
+        leaseRepository.ensurePartitions(JOB_NAME, 1);
+        if (leaseRepository.claimNext(JOB_NAME, 1, owner, lease, minInterval).isEmpty()) {
+            logger.debug("Borrow archival already running or done on another replica");
+            return;
+        }
+
+        try {
+            long total = runTimer.record(this::archiveBatches);
+            leaseRepository.complete(JOB_NAME, PARTITION, owner);
+            logger.info("Archived {} returned borrows", total);
+        } catch (RuntimeException e) {
+            logger.error("Borrow archival failed: {}", e.getMessage(), e);
+            leaseRepository.release(JOB_NAME, PARTITION, owner);
+        }
+    }
+
+    private long archiveBatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        archiveRepository.ensurePartitions(cutoff);
+
+        long total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<Long> borrowIds = archiveRepository.lockArchivable(cutoff, batchSize);
+                return borrowIds.isEmpty() ? 0 : archiveRepository.move(borrowIds);
+            });
+            total += moved;
+            archived.increment(moved);
+            logger.debug("Archived {} returned borrows", moved);
+            if (moved > 0 && !leaseRepository.renew(JOB_NAME, PARTITION, owner, lease)) {
+                logger.warn("Lost lease on borrow archival, stopping");
+                break;
+            }
+        } while (moved == batchSize);
+        return total;
+    }
+}
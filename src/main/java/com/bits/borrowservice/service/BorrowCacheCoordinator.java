@@ -0,0 +1,67 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.event.CacheInvalidationPublisher;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the borrow caches in step with writes: {@link BorrowLookupCache} and {@link BookBorrowCache} on this
+ * replica are updated in place after commit, and the other replicas are told to drop their copies through an
+ * outbox message written in the same transaction. Nothing happens if the transaction rolls back.
+ */
+@Component
+@RequiredArgsConstructor
+public class BorrowCacheCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowCacheCoordinator.class);
+
+    private final BorrowLookupCache lookupCache;
+    private final BookBorrowCache bookBorrowCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    public void updateAfterCommit(Borrow borrow) {
+        updateAfterCommit(List.of(borrow));
+    }
+
+    /**
+     * Applies {@code borrows} to the local caches once the current transaction commits, or right away outside
+     * one. The entities are read at that point, after the flush has set {@code updatedAt}.
+     */
+    public void updateAfterCommit(Collection<Borrow> borrows) {
+        List<Borrow> changed = List.copyOf(borrows);
+        invalidationPublisher.publish(
+                changed.stream().map(Borrow::getId).toList(),
+                changed.stream().map(Borrow::getBookId).distinct().toList());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(changed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(changed);
+            }
+        });
+    }
+
+    private void update(List<Borrow> changed) {
+        try {
+            lookupCache.refresh(changed);
+            bookBorrowCache.apply(changed);
+        } catch (RuntimeException e) {
+            // The write is committed; rather than failing the request, drop what may now be stale
+            logger.warn("Failed to update borrow caches for {} borrows: {}", changed.size(), e.getMessage());
+            changed.forEach(borrow -> {
+                lookupCache.invalidate(borrow.getId());
+                bookBorrowCache.invalidate(borrow.getBookId());
+            });
+        }
+    }
+}
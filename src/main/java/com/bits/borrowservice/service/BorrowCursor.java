@@ -0,0 +1,35 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset scroll: the sort key and ID of the last row returned. Encoded as an opaque
+ * URL-safe token; {@code sortKey} is {@code null} for listings ordered by ID alone.
+ */
+record BorrowCursor(LocalDateTime sortKey, long id) {
+    private static final char SEPARATOR = '~';
+
+    String encode() {
+        String raw = (sortKey != null ? sortKey.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BorrowCursor decode(String token, boolean requireSortKey) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0 || (separator == 0) == requireSortKey) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            LocalDateTime sortKey = requireSortKey ? LocalDateTime.parse(raw.substring(0, separator)) : null;
+            return new BorrowCursor(sortKey, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.repository.BorrowExportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams borrow history, hot and archived, as NDJSON or CSV.
+ * <p>
+ * The whole export is one read-only REPEATABLE READ transaction, so it sees a single snapshot, and one
+ * cursor query: each row is written as soon as it is fetched and nothing is collected, so memory use does not
+ * depend on the number of rows. Read-only transactions go to a read replica when one is configured.
+ */
+@Service
+public class BorrowExportService {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowExportService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String CSV_HEADER = "id,user_id,book_id,borrow_date,due_date,status,extension_count,created_at,updated_at\n";
+
+    private final BorrowExportRepository exportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter rowsExported;
+
+    public BorrowExportService(BorrowExportRepository exportRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.exportRepository = exportRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.meterRegistry = meterRegistry;
+        this.rowsExported = Counter.builder("borrow.export.rows")
+                .description("Borrow records written by exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes every loan borrowed in {@code [from, to)} with the given status to {@code out}. The stream is
+     * flushed but not closed.
+     *
+     * @return the number of records written
+     */
+    public long export(ExportFormat format, LocalDateTime from, LocalDateTime to, Borrow.BorrowStatus status,
+                       OutputStream out) throws IOException {
+        logger.info("Exporting borrows as {} (from: {}, to: {}, status: {})", format, from, to, status);
+        Timer.Sample sample = Timer.start();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        long[] written = {0};
+        try {
+            transactionTemplate.executeWithoutResult(tx -> exportRepository.forEach(from, to, status, borrow -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, borrow);
+                    } else {
+                        writeJson(writer, borrow);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction and its cursor are already closed
+            logger.warn("Borrow export aborted after {} records: {}", written[0], e.getCause().getMessage());
+            throw e.getCause();
+        } finally {
+            rowsExported.increment(written[0]);
+            sample.stop(meterRegistry.timer("borrow.export", "format", format.getExtension()));
+        }
+        writer.flush();
+
+        logger.info("Exported {} borrows as {}", written[0], format);
+        return written[0];
+    }
+
+    // All values are numbers, ISO timestamps or enum names, so neither format needs quoting or escaping
+
+    private static void writeJson(Writer writer, Borrow borrow) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(Long.toString(borrow.getId()));
+        writer.write(",\"userId\":");
+        writer.write(Long.toString(borrow.getUserId()));
+        writer.write(",\"bookId\":");
+        writer.write(Long.toString(borrow.getBookId()));
+        writer.write(",\"borrowDate\":\"");
+        writer.write(TIMESTAMP.format(borrow.getBorrowDate()));
+        writer.write("\",\"dueDate\":\"");
+        writer.write(TIMESTAMP.format(borrow.getDueDate()));
+        writer.write("\",\"status\":\"");
+        writer.write(borrow.getStatus().name());
+        writer.write("\",\"extensionCount\":");
+        writer.write(Integer.toString(borrow.getExtensionCount()));
+        writer.write(",\"createdAt\":\"");
+        writer.write(TIMESTAMP.format(borrow.getCreatedAt()));
+        writer.write("\",\"updatedAt\":\"");
+        writer.write(TIMESTAMP.format(borrow.getUpdatedAt()));
+        writer.write("\"}\n");
+    }
+
+    private static void writeCsv(Writer writer, Borrow borrow) throws IOException {
+        writer.write(Long.toString(borrow.getId()));
+        writer.write(',');
+        writer.write(Long.toString(borrow.getUserId()));
+        writer.write(',');
+        writer.write(Long.toString(borrow.getBookId()));
+        writer.write(',');
+        writer.write(TIMESTAMP.format(borrow.getBorrowDate()));
+        writer.write(',');
+        writer.write(TIMESTAMP.format(borrow.getDueDate()));
+        writer.write(',');
+        writer.write(borrow.getStatus().name());
+        writer.write(',');
+        writer.write(Integer.toString(borrow.getExtensionCount()));
+        writer.write(',');
+        writer.write(TIMESTAMP.format(borrow.getCreatedAt()));
+        writer.write(',');
+        writer.write(TIMESTAMP.format(borrow.getUpdatedAt()));
+        writer.write('\n');
+    }
+}
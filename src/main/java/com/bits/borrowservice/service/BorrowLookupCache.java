@@ -0,0 +1,72 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.Borrow;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-limited cache of single borrow records for {@code GET /api/borrows/{id}}.
+ * <p>
+ * Write paths refresh entries with the state they committed rather than evicting them, so a lookup racing
+ * with a write cannot put the pre-write row back. Only loans already cached are refreshed; bulk jobs such as
+ * the overdue sweep do not fill the cache with records nobody asked for. Other replicas drop their copies
+ * when the change is announced on {@code borrow-cache-invalidations}, or when it expires.
+ * <p>
+ * Loads run on the calling thread outside the cache's internal locks (see {@link CallerLoads}), so a request
+ * on a virtual thread is not pinned to its carrier while it waits for the database.
+ */
+@Component
+public class BorrowLookupCache {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowLookupCache.class);
+
+    private final AsyncCache<Long, BorrowResponse> cache;
+
+    public BorrowLookupCache(@Value("${borrow.lookup-cache.ttl:30s}") Duration ttl,
+                             @Value("${borrow.lookup-cache.maximum-size:20000}") long maximumSize,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "borrow-by-id");
+    }
+
+    /**
+     * Returns the cached record, loading it with {@code loader} on a miss. Concurrent misses for the same ID
+     * share one load; a {@code null} result is not cached.
+     */
+    public BorrowResponse get(Long borrowId, Function<Long, BorrowResponse> loader) {
+        return CallerLoads.get(cache, borrowId, loader);
+    }
+
+    /**
+     * Replaces the cached copies of {@code borrows}, if any. Called after commit, once the flush has set
+     * {@code updatedAt}.
+     */
+    void refresh(Collection<Borrow> borrows) {
+        for (Borrow borrow : borrows) {
+            CallerLoads.replaceIfPresent(cache, borrow.getId(), cached -> BorrowResponse.fromEntity(borrow));
+        }
+    }
+
+    public void invalidate(Long borrowId) {
+        logger.debug("Invalidating cached borrow ID: {}", borrowId);
+        cache.synchronous().invalidate(borrowId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
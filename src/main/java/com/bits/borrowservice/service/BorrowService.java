@@ -1,45 +1,61 @@
 package com.bits.borrowservice.service;
 
-import com.bits.borrowservice.client.BookServiceClient;
-import com.bits.borrowservice.client.UserServiceClient;
+import com.bits.borrowservice.config.PrimaryReadContext;
 import com.bits.borrowservice.dto.request.BorrowRequest;
+import com.bits.borrowservice.dto.request.BulkBorrowRequest;
+import com.bits.borrowservice.dto.request.BulkReturnRequest;
 import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.dto.response.BulkItemResult;
+import com.bits.borrowservice.dto.response.BulkOperationResponse;
+import com.bits.borrowservice.dto.response.CursorPage;
 import com.bits.borrowservice.entity.Borrow;
-import com.bits.borrowservice.entity.BorrowExtension;
-import com.bits.borrowservice.entity.Fine;
 import com.bits.borrowservice.entity.Return;
 import com.bits.borrowservice.event.BorrowEventPublisher;
 import com.bits.borrowservice.exception.*;
-import com.bits.borrowservice.repository.BorrowExtensionRepository;
+import com.bits.borrowservice.repository.BorrowHistoryRepository;
+import com.bits.borrowservice.repository.BorrowJdbcRepository;
 import com.bits.borrowservice.repository.BorrowRepository;
-import com.bits.borrowservice.repository.FineRepository;
+import com.bits.borrowservice.repository.FineAccrualRepository;
 import com.bits.borrowservice.repository.ReturnRepository;
+import com.bits.borrowservice.repository.UserBorrowCounterRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BorrowService {
     private static final Logger logger = LoggerFactory.getLogger(BorrowService.class);
+    // Start positions for the first slice of a scroll
+    private static final LocalDateTime SCROLL_NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final LocalDateTime SCROLL_OLDEST = LocalDateTime.of(1970, 1, 1, 0, 0);
     
     private final BorrowRepository borrowRepository;
+    private final BorrowHistoryRepository borrowHistoryRepository;
     private final ReturnRepository returnRepository;
-    private final FineRepository fineRepository;
-    private final BorrowExtensionRepository borrowExtensionRepository;
-    private final BookServiceClient bookServiceClient;
-    private final UserServiceClient userServiceClient;
+    private final BorrowJdbcRepository borrowJdbcRepository;
+    private final UserBorrowCounterRepository borrowCounterRepository;
+    private final FineAccrualRepository fineAccrualRepository;
+    private final BookStatusOutboxDispatcher bookStatusOutbox;
+    private final BorrowValidator borrowValidator;
     private final BorrowEventPublisher eventPublisher;
+    private final BorrowLookupCache lookupCache;
+    private final BookBorrowCache bookBorrowCache;
+    private final BorrowCacheCoordinator cacheCoordinator;
 
     @Value("${borrow.default-loan-days}")
     private int defaultLoanDays;
@@ -53,27 +69,24 @@ public class BorrowService {
     @Value("${borrow.fine-per-day}")
     private BigDecimal finePerDay;
 
+    @Value("${borrow.max-active-borrows:5}")
+    private int maxActiveBorrows;
+
+    @Value("${borrow.bulk.max-items:50}")
+    private int maxBulkItems;
+
+    @Value("${borrow.scroll.max-size:100}")
+    private int maxScrollSize;
+
     @Transactional
     public BorrowResponse borrowBook(BorrowRequest request) {
         logger.debug("Processing borrow request: {}", request);
         
-        // Validate user and book
-        logger.debug("Checking user status for user ID: {}", request.getUserId());
-        if (!userServiceClient.checkUserStatus(request.getUserId())) {
-            logger.warn("User not active: {}", request.getUserId());
-            throw new UserNotActiveException("User is not active");
-        }
+        // Validate user and book concurrently
+        borrowValidator.validate(request);
 
-        logger.debug("Checking book availability for book ID: {}", request.getBookId());
-        if (!bookServiceClient.checkBookAvailability(request.getBookId())) {
-            logger.warn("Book not available: {}", request.getBookId());
-            throw new BookNotAvailableException("Book is not available");
-        }
-
-        // Check if user has reached maximum active borrows
-        long activeBorrows = borrowRepository.countActiveBorrowsByUserId(request.getUserId());
-        logger.debug("User {} has {} active borrows", request.getUserId(), activeBorrows);
-        if (activeBorrows >= 5) {
+        // Count the new borrow against the user's limit; rolled back with the transaction on failure
+        if (!borrowCounterRepository.tryIncrement(request.getUserId(), maxActiveBorrows)) {
             logger.warn("Maximum borrows exceeded for user: {}", request.getUserId());
             throw new MaximumBorrowsExceededException("User has reached maximum active borrows");
         }
@@ -90,13 +103,14 @@ public class BorrowService {
         borrow = borrowRepository.save(borrow);
         logger.debug("Created borrow record: {}", borrow);
 
-        // Update book status
+        // Record book status change, delivered to the book service after commit
         logger.debug("Updating book status to BORROWED for book ID: {}", request.getBookId());
-        bookServiceClient.updateBookStatus(request.getBookId(), "BORROWED");
+        bookStatusOutbox.enqueue(request.getBookId(), "BORROWED");
 
         // Publish event
         logger.debug("Publishing borrow event for borrow ID: {}", borrow.getId());
         eventPublisher.publishBorrowEvent(borrow);
+        cacheCoordinator.updateAfterCommit(borrow);
 
         return BorrowResponse.fromEntity(borrow);
     }
@@ -105,140 +119,343 @@ public class BorrowService {
     public BorrowResponse returnBook(Long borrowId) {
         logger.debug("Processing return for borrow ID: {}", borrowId);
         
-        Borrow borrow = borrowRepository.findById(borrowId)
-                .orElseThrow(() -> {
-                    logger.warn("Borrow not found: {}", borrowId);
-                    return new BorrowNotFoundException("Borrow record not found");
-                });
+        // Locked so a concurrent return, overdue sweep or fine accrual cannot act on the same loan
+        Borrow borrow = borrowRepository.findByIdForUpdate(borrowId)
+                .orElseThrow(() -> notFoundUnlessArchived(borrowId, "Can only return borrowed books"));
 
         if (borrow.getStatus() != Borrow.BorrowStatus.BORROWED) {
             logger.warn("Invalid borrow status for return: {}", borrow.getStatus());
             throw new InvalidBorrowStatusException("Can only return borrowed books");
         }
 
-        // Create return record
+        // Bring the loan's pending fine up to the return date, then record the return with it
         logger.debug("Creating return record for borrow ID: {}", borrowId);
-        Return returnRecord = new Return();
-        returnRecord.setBorrow(borrow);
-        returnRecord.setReturnDate(LocalDateTime.now());
-        returnRepository.save(returnRecord);
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal fineAmount = fineAccrualRepository.accrue(List.of(borrowId), now, finePerDay)
+                .getOrDefault(borrowId, BigDecimal.ZERO);
+        returnRepository.save(newReturn(borrow, now, fineAmount));
+        logger.debug("Pending fine for borrow ID {}: {}", borrowId, fineAmount);
 
         // Update borrow status
         logger.debug("Updating borrow status to RETURNED for borrow ID: {}", borrowId);
         borrow.setStatus(Borrow.BorrowStatus.RETURNED);
         borrow = borrowRepository.save(borrow);
+        borrowCounterRepository.decrement(borrow.getUserId());
 
-        // Update book status
+        // Record book status change, delivered to the book service after commit
         logger.debug("Updating book status to AVAILABLE for book ID: {}", borrow.getBookId());
-        bookServiceClient.updateBookStatus(borrow.getBookId(), "AVAILABLE");
-
-        // Calculate fine if overdue
-        if (borrow.getDueDate().isBefore(LocalDateTime.now())) {
-            logger.debug("Calculating fine for overdue return");
-            long daysOverdue = java.time.Duration.between(borrow.getDueDate(), LocalDateTime.now()).toDays();
-            BigDecimal fineAmount = finePerDay.multiply(BigDecimal.valueOf(daysOverdue));
-            
-            Fine fine = new Fine();
-            fine.setBorrow(borrow);
-            fine.setAmount(fineAmount);
-            fine.setStatus(Fine.FineStatus.PENDING);
-            fineRepository.save(fine);
-            logger.debug("Created fine record: {}", fine);
-        }
+        bookStatusOutbox.enqueue(borrow.getBookId(), "AVAILABLE");
 
         // Publish event
         logger.debug("Publishing return event for borrow ID: {}", borrowId);
         eventPublisher.publishReturnEvent(borrow);
+        cacheCoordinator.updateAfterCommit(borrow);
 
         return BorrowResponse.fromEntity(borrow);
     }
 
+    /**
+     * Borrows several books in one transaction. Users and books are validated in bulk; each item that passes
+     * and fits under its user's limit is borrowed, the others are reported as failed. Rows and events are
+     * written as batches.
+     */
     @Transactional
-    public BorrowResponse extendBorrow(Long borrowId) {
-        logger.debug("Processing extension for borrow ID: {}", borrowId);
-        
-        Borrow borrow = borrowRepository.findById(borrowId)
-                .orElseThrow(() -> {
-                    logger.warn("Borrow not found: {}", borrowId);
-                    return new BorrowNotFoundException("Borrow record not found");
-                });
+    public BulkOperationResponse bulkBorrow(BulkBorrowRequest request) {
+        List<BorrowRequest> items = request.getItems();
+        logger.debug("Processing bulk borrow of {} items", items.size());
+        checkBulkSize(items.size());
+
+        Map<Integer, BorrowServiceException> failures = new HashMap<>(borrowValidator.validateAll(items));
+
+        // Reserve active-borrow slots per user in request order; users are locked in ID order
+        Map<Long, List<Integer>> itemsByUser = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (!failures.containsKey(i)) {
+                itemsByUser.computeIfAbsent(items.get(i).getUserId(), userId -> new ArrayList<>()).add(i);
+            }
+        }
+        itemsByUser.forEach((userId, userItems) -> {
+            int granted = borrowCounterRepository.reserve(userId, userItems.size(), maxActiveBorrows);
+            for (Integer index : userItems.subList(granted, userItems.size())) {
+                logger.warn("Maximum borrows exceeded for user: {}", userId);
+                failures.put(index, new MaximumBorrowsExceededException("User has reached maximum active borrows"));
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Borrow> borrowed = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (!failures.containsKey(i)) {
+                Borrow borrow = new Borrow();
+                borrow.setUserId(items.get(i).getUserId());
+                borrow.setBookId(items.get(i).getBookId());
+                borrow.setBorrowDate(now);
+                borrow.setDueDate(now.plusDays(defaultLoanDays));
+                borrow.setStatus(Borrow.BorrowStatus.BORROWED);
+                borrowed.put(i, borrow);
+            }
+        }
 
-        if (borrow.getStatus() != Borrow.BorrowStatus.BORROWED) {
-            logger.warn("Invalid borrow status for extension: {}", borrow.getStatus());
-            throw new InvalidBorrowStatusException("Can only extend active borrows");
+        if (!borrowed.isEmpty()) {
+            borrowRepository.saveAll(borrowed.values());
+            bookStatusOutbox.enqueueAll(borrowed.values().stream().map(Borrow::getBookId).toList(), "BORROWED");
+            eventPublisher.publishBorrowEvents(borrowed.values());
+            cacheCoordinator.updateAfterCommit(borrowed.values());
+        }
+        logger.debug("Bulk borrow created {} of {} borrows", borrowed.size(), items.size());
+
+        return toBulkResponse(items.size(), borrowed, failures);
+    }
+
+    /**
+     * Returns several loans in one transaction. The loans are locked with one query and their pending fines
+     * brought up to date with one statement; returns, status changes and events are written as batches. Items
+     * that cannot be returned are reported as failed.
+     */
+    @Transactional
+    public BulkOperationResponse bulkReturn(BulkReturnRequest request) {
+        List<Long> borrowIds = request.getBorrowIds();
+        logger.debug("Processing bulk return of {} items", borrowIds.size());
+        checkBulkSize(borrowIds.size());
+
+        Map<Long, Borrow> borrows = new HashMap<>();
+        // Locked in ID order, so concurrent bulk and single returns cannot deadlock or decrement twice
+        borrowRepository.findAllByIdForUpdate(new HashSet<>(borrowIds)).forEach(borrow -> borrows.put(borrow.getId(), borrow));
+
+        // Loans missing from borrows may have been archived, which only happens once they are returned
+        Set<Long> missing = borrowIds.stream().filter(id -> !borrows.containsKey(id)).collect(Collectors.toSet());
+        Set<Long> archived = missing.isEmpty() ? Set.of() : new HashSet<>(borrowHistoryRepository.findExistingIds(missing));
+
+        Map<Integer, BorrowServiceException> failures = new HashMap<>();
+        Map<Integer, Borrow> returned = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < borrowIds.size(); i++) {
+            Borrow borrow = borrows.get(borrowIds.get(i));
+            if (borrow == null) {
+                failures.put(i, archived.contains(borrowIds.get(i))
+                        ? new InvalidBorrowStatusException("Can only return borrowed books")
+                        : new BorrowNotFoundException("Borrow record not found"));
+            } else if (!seen.add(borrow.getId()) || borrow.getStatus() != Borrow.BorrowStatus.BORROWED) {
+                failures.put(i, new InvalidBorrowStatusException("Can only return borrowed books"));
+            } else {
+                returned.put(i, borrow);
+            }
         }
 
-        // Check if maximum extensions reached
-        long extensionCount = borrowExtensionRepository.countExtensionsByBorrowId(borrowId);
-        logger.debug("Current extension count for borrow {}: {}", borrowId, extensionCount);
-        if (extensionCount >= maxExtensions) {
-            logger.warn("Maximum extensions reached for borrow: {}", borrowId);
-            throw new MaximumExtensionsExceededException("Maximum extensions reached");
+        if (!returned.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, BigDecimal> fines = fineAccrualRepository.accrue(
+                    returned.values().stream().map(Borrow::getId).toList(), now, finePerDay);
+            List<Return> returns = new ArrayList<>(returned.size());
+            for (Borrow borrow : returned.values()) {
+                returns.add(newReturn(borrow, now, fines.getOrDefault(borrow.getId(), BigDecimal.ZERO)));
+                borrow.setStatus(Borrow.BorrowStatus.RETURNED);
+            }
+            returnRepository.saveAll(returns);
+            borrowCounterRepository.decrementAll(returned.values().stream()
+                    .collect(Collectors.groupingBy(Borrow::getUserId, Collectors.summingInt(borrow -> 1))));
+            bookStatusOutbox.enqueueAll(returned.values().stream().map(Borrow::getBookId).toList(), "AVAILABLE");
+            eventPublisher.publishReturnEvents(returned.values());
+            cacheCoordinator.updateAfterCommit(returned.values());
         }
+        logger.debug("Bulk return processed {} of {} returns", returned.size(), borrowIds.size());
 
-        // Create extension record
-        logger.debug("Creating extension record for borrow ID: {}", borrowId);
-        BorrowExtension extension = new BorrowExtension();
-        extension.setBorrow(borrow);
-        extension.setExtendedDays(extensionDays);
-        extension.setNewDueDate(borrow.getDueDate().plusDays(extensionDays));
-        borrowExtensionRepository.save(extension);
-
-        // Update due date
-        logger.debug("Updating due date for borrow ID: {}", borrowId);
-        borrow.setDueDate(extension.getNewDueDate());
-        borrow = borrowRepository.save(borrow);
+        return toBulkResponse(borrowIds.size(), returned, failures);
+    }
+
+    private void checkBulkSize(int size) {
+        if (size > maxBulkItems) {
+            logger.warn("Bulk request with {} items exceeds the limit of {}", size, maxBulkItems);
+            throw new BorrowServiceException("At most " + maxBulkItems + " items are allowed per request");
+        }
+    }
+
+    private static BulkOperationResponse toBulkResponse(int size, Map<Integer, Borrow> succeeded,
+                                                        Map<Integer, BorrowServiceException> failures) {
+        List<BulkItemResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Borrow borrow = succeeded.get(i);
+            results.add(borrow != null
+                    ? BulkItemResult.succeeded(i, BorrowResponse.fromEntity(borrow))
+                    : BulkItemResult.failed(i, failures.get(i).getMessage()));
+        }
+        return BulkOperationResponse.of(results);
+    }
+
+    private Return newReturn(Borrow borrow, LocalDateTime returnedAt, BigDecimal fineAmount) {
+        Return returnRecord = new Return();
+        returnRecord.setBorrow(borrow);
+        returnRecord.setReturnDate(returnedAt);
+        returnRecord.setFineAmount(fineAmount);
+        return returnRecord;
+    }
+
+    @Transactional
+    public BorrowResponse extendBorrow(Long borrowId) {
+        logger.debug("Processing extension for borrow ID: {}", borrowId);
+        
+        // Check the limit, move the due date and record the extension in one statement
+        Borrow borrow = borrowJdbcRepository.extend(borrowId, extensionDays, maxExtensions)
+                .orElseThrow(() -> extensionRejected(borrowId));
+        logger.debug("Extended borrow {} to {} ({} extensions)", borrowId, borrow.getDueDate(), borrow.getExtensionCount());
 
         // Publish event
         logger.debug("Publishing due date event for borrow ID: {}", borrowId);
         eventPublisher.publishDueDateEvent(borrow);
+        cacheCoordinator.updateAfterCommit(borrow);
 
         return BorrowResponse.fromEntity(borrow);
     }
 
+    // Only called when the extension was not applied, to report why
+    private BorrowServiceException extensionRejected(Long borrowId) {
+        Borrow borrow = borrowRepository.findById(borrowId).orElse(null);
+        if (borrow == null) {
+            return notFoundUnlessArchived(borrowId, "Can only extend active borrows");
+        }
+        if (borrow.getStatus() != Borrow.BorrowStatus.BORROWED) {
+            logger.warn("Invalid borrow status for extension: {}", borrow.getStatus());
+            return new InvalidBorrowStatusException("Can only extend active borrows");
+        }
+        logger.warn("Maximum extensions reached for borrow: {}", borrowId);
+        return new MaximumExtensionsExceededException("Maximum extensions reached");
+    }
+
+    // A loan missing from borrows may have been archived, which only happens once it is returned
+    private BorrowServiceException notFoundUnlessArchived(Long borrowId, String invalidStatusMessage) {
+        if (!borrowHistoryRepository.findExistingIds(List.of(borrowId)).isEmpty()) {
+            logger.warn("Borrow {} is archived", borrowId);
+            return new InvalidBorrowStatusException(invalidStatusMessage);
+        }
+        logger.warn("Borrow not found: {}", borrowId);
+        return new BorrowNotFoundException("Borrow record not found");
+    }
+
+    /**
+     * Looks up one borrow record, hot or archived, through {@link BorrowLookupCache}.
+     * No transaction is opened, so a cache hit does not take a connection; a miss is a single statement on the
+     * primary, since a replica lagging behind a return or extension would put the old state back into the cache.
+     */
+    public BorrowResponse getBorrow(Long borrowId) {
+        logger.debug("Getting borrow with ID: {}", borrowId);
+        BorrowResponse borrow = lookupCache.get(borrowId, id -> borrowHistoryRepository.findResponseById(id).orElse(null));
+        if (borrow == null) {
+            logger.warn("Borrow not found: {}", borrowId);
+            throw new BorrowNotFoundException("Borrow record not found");
+        }
+        return borrow;
+    }
+
+    @Transactional(readOnly = true)
     public Page<BorrowResponse> getUserBorrows(Long userId, Pageable pageable) {
         logger.debug("Getting borrows for user ID: {} with pageable: {}", userId, pageable);
-        Page<BorrowResponse> borrows = borrowRepository.findByUserId(userId, pageable)
-                .map(BorrowResponse::fromEntity);
+        Page<BorrowResponse> borrows = borrowHistoryRepository.findResponsesByUserId(userId, pageable);
         logger.debug("Found {} borrows for user {}", borrows.getTotalElements(), userId);
         return borrows;
     }
 
+    /**
+     * A book's borrowing history, newest first unless another order is requested. The first page is served
+     * from {@link BookBorrowCache}.
+     */
+    @Transactional(readOnly = true)
     public Page<BorrowResponse> getBookBorrows(Long bookId, Pageable pageable) {
         logger.debug("Getting borrows for book ID: {} with pageable: {}", bookId, pageable);
-        Page<BorrowResponse> borrows = borrowRepository.findByBookId(bookId, pageable)
-                .map(BorrowResponse::fromEntity);
+        Pageable ordered = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), BookBorrowCache.NEWEST_FIRST);
+        if (ordered.getPageNumber() == 0 && ordered.getPageSize() <= bookBorrowCache.getPageSize()
+                && ordered.getSort().equals(BookBorrowCache.NEWEST_FIRST)) {
+            BookBorrowCache.Snapshot snapshot = bookSnapshot(bookId);
+            List<BorrowResponse> content = snapshot.newest().subList(0, Math.min(ordered.getPageSize(), snapshot.newest().size()));
+            return new PageImpl<>(content, ordered, snapshot.total());
+        }
+        Page<BorrowResponse> borrows = borrowHistoryRepository.findResponsesByBookId(bookId, ordered);
         logger.debug("Found {} borrows for book {}", borrows.getTotalElements(), bookId);
         return borrows;
     }
 
+    /**
+     * The loan in progress (BORROWED or OVERDUE) for a book, if any, from {@link BookBorrowCache}.
+     * No transaction is opened, so a cache hit does not take a connection.
+     */
+    public Optional<BorrowResponse> getActiveBookBorrow(Long bookId) {
+        logger.debug("Getting active borrow for book ID: {}", bookId);
+        return Optional.ofNullable(bookSnapshot(bookId).activeLoan());
+    }
+
+    // Misses are read from the primary, like by-ID lookups, so a lagging replica cannot seed the cache
+    private BookBorrowCache.Snapshot bookSnapshot(Long bookId) {
+        return bookBorrowCache.get(bookId, id -> PrimaryReadContext.onPrimary(() -> {
+            Page<BorrowResponse> newest = borrowHistoryRepository.findResponsesByBookId(
+                    id, PageRequest.of(0, bookBorrowCache.getPageSize(), BookBorrowCache.NEWEST_FIRST));
+            logger.debug("Loaded {} of {} borrows for book {} into the cache", newest.getNumberOfElements(), newest.getTotalElements(), id);
+            return BookBorrowCache.Snapshot.of(newest.getContent(), newest.getTotalElements());
+        }));
+    }
+
+    @Transactional(readOnly = true)
     public Page<BorrowResponse> getOverdueBorrows(Pageable pageable) {
         logger.debug("Getting overdue borrows with pageable: {}", pageable);
-        Page<BorrowResponse> borrows = borrowRepository.findOverdueBorrows(LocalDateTime.now(), pageable)
-                .map(BorrowResponse::fromEntity);
+        Page<BorrowResponse> borrows = borrowRepository.findOverdueResponses(LocalDateTime.now(), pageable);
         logger.debug("Found {} overdue borrows", borrows.getTotalElements());
         return borrows;
     }
 
+    @Transactional(readOnly = true)
     public Page<BorrowResponse> getAllBorrows(Pageable pageable) {
         logger.debug("Getting all borrows with pageable: {}", pageable);
-        Page<BorrowResponse> borrows = borrowRepository.findAll(pageable)
-                .map(BorrowResponse::fromEntity);
+        Page<BorrowResponse> borrows = borrowHistoryRepository.findAllResponses(pageable);
         logger.debug("Found {} total borrows", borrows.getTotalElements());
         return borrows;
     }
 
-    @Scheduled(cron = "0 0 * * * *") // Run every hour
-    public void checkOverdueBorrows() {
-        logger.debug("Running scheduled check for overdue borrows");
-        List<Borrow> overdueBorrows = borrowRepository.findOverdueBorrows(LocalDateTime.now());
-        logger.debug("Found {} overdue borrows", overdueBorrows.size());
-        
-        for (Borrow borrow : overdueBorrows) {
-            logger.debug("Processing overdue borrow ID: {}", borrow.getId());
-            borrow.setStatus(Borrow.BorrowStatus.OVERDUE);
-            borrowRepository.save(borrow);
-            eventPublisher.publishDueDateEvent(borrow);
-        }
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowResponse> scrollAllBorrows(String cursor, int size) {
+        logger.debug("Scrolling all borrows after cursor: {}", cursor);
+        long afterId = cursor != null ? BorrowCursor.decode(cursor, false).id() : 0;
+        int pageSize = scrollSize(size);
+        List<BorrowResponse> rows = borrowHistoryRepository.scrollAll(afterId, Limit.of(pageSize + 1));
+        return toCursorPage(rows, pageSize, last -> new BorrowCursor(null, last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowResponse> scrollUserBorrows(Long userId, String cursor, int size) {
+        logger.debug("Scrolling borrows for user ID: {} after cursor: {}", userId, cursor);
+        BorrowCursor position = cursor != null ? BorrowCursor.decode(cursor, true) : new BorrowCursor(SCROLL_NEWEST, Long.MAX_VALUE);
+        int pageSize = scrollSize(size);
+        List<BorrowResponse> rows = borrowHistoryRepository.scrollByUserId(userId, position.sortKey(), position.id(), Limit.of(pageSize + 1));
+        return toCursorPage(rows, pageSize, last -> new BorrowCursor(last.getBorrowDate(), last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowResponse> scrollBookBorrows(Long bookId, String cursor, int size) {
+        logger.debug("Scrolling borrows for book ID: {} after cursor: {}", bookId, cursor);
+        BorrowCursor position = cursor != null ? BorrowCursor.decode(cursor, true) : new BorrowCursor(SCROLL_NEWEST, Long.MAX_VALUE);
+        int pageSize = scrollSize(size);
+        List<BorrowResponse> rows = borrowHistoryRepository.scrollByBookId(bookId, position.sortKey(), position.id(), Limit.of(pageSize + 1));
+        return toCursorPage(rows, pageSize, last -> new BorrowCursor(last.getBorrowDate(), last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowResponse> scrollOverdueBorrows(String cursor, int size) {
+        logger.debug("Scrolling overdue borrows after cursor: {}", cursor);
+        BorrowCursor position = cursor != null ? BorrowCursor.decode(cursor, true) : new BorrowCursor(SCROLL_OLDEST, 0);
+        int pageSize = scrollSize(size);
+        List<BorrowResponse> rows = borrowRepository.scrollOverdue(LocalDateTime.now(), position.sortKey(), position.id(), Limit.of(pageSize + 1));
+        return toCursorPage(rows, pageSize, last -> new BorrowCursor(last.getDueDate(), last.getId()));
+    }
+
+    private int scrollSize(int requested) {
+        return Math.max(1, Math.min(requested, maxScrollSize));
+    }
+
+    // Rows are fetched with one extra element to learn whether another slice follows
+    private static CursorPage<BorrowResponse> toCursorPage(List<BorrowResponse> rows, int pageSize,
+                                                           Function<BorrowResponse, BorrowCursor> cursorOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<BorrowResponse> content = hasNext ? List.copyOf(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        logger.debug("Returning {} borrows, has next: {}", content.size(), hasNext);
+        return new CursorPage<>(content, content.size(), nextCursor, hasNext);
     }
-} 
\ No newline at end of file
+}
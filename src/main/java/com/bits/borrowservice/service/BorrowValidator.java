@@ -0,0 +1,247 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.client.BookAvailabilityCoalescer;
+import com.bits.borrowservice.client.UserStatusCache;
+import com.bits.borrowservice.config.TaskExecutors;
+import com.bits.borrowservice.dto.request.BorrowRequest;
+import com.bits.borrowservice.exception.BookNotAvailableException;
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.bits.borrowservice.exception.UserNotActiveException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs the independent pre-borrow checks concurrently under a shared deadline.
+ * <p>
+ * The checks run on a bounded executor. When it is saturated the borrow is rejected instead of running the
+ * check inline, so no check outlives the deadline.
+ * <p>
+ * Checks are listed in the order {@link BorrowService} used to run them sequentially. When several fail,
+ * the earliest one in that order wins, so callers see exactly the exception they saw before; checks after
+ * a failed one are cancelled, checks before it are awaited. The active-borrow limit is not checked here:
+ * {@link BorrowService} enforces it atomically with the per-user counter after these checks pass.
+ */
+@Component
+public class BorrowValidator implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowValidator.class);
+
+    private final UserStatusCache userStatusCache;
+    private final BookAvailabilityCoalescer bookAvailabilityCoalescer;
+    private final Executor executor;
+    private final Duration timeout;
+
+    public BorrowValidator(UserStatusCache userStatusCache,
+                           BookAvailabilityCoalescer bookAvailabilityCoalescer,
+                           Environment environment,
+                           @Value("${borrow.validation.timeout:10s}") Duration timeout,
+                           @Value("${borrow.validation.max-concurrency:64}") int maxConcurrency,
+                           @Value("${borrow.validation.queue-capacity:256}") int queueCapacity) {
+        this.userStatusCache = userStatusCache;
+        this.bookAvailabilityCoalescer = bookAvailabilityCoalescer;
+        this.timeout = timeout;
+        this.executor = createExecutor(environment, maxConcurrency, queueCapacity);
+    }
+
+    public void validate(BorrowRequest request) {
+        List<Callable<Void>> checks = List.of(
+                () -> {
+                    logger.debug("Checking user status for user ID: {}", request.getUserId());
+                    if (!userStatusCache.isActive(request.getUserId())) {
+                        logger.warn("User not active: {}", request.getUserId());
+                        throw new UserNotActiveException("User is not active");
+                    }
+                    return null;
+                },
+                () -> {
+                    logger.debug("Checking book availability for book ID: {}", request.getBookId());
+                    if (!bookAvailabilityCoalescer.isAvailable(request.getBookId())) {
+                        logger.warn("Book not available: {}", request.getBookId());
+                        throw new BookNotAvailableException("Book is not available");
+                    }
+                    return null;
+                });
+
+        runAll(checks);
+    }
+
+    /**
+     * Validates a batch of borrow requests with one availability lookup for all books (sent as bulk requests)
+     * and one status lookup per distinct user, running both concurrently. A book requested more than once is
+     * only available to its first request.
+     *
+     * @return the failure of each rejected request, by index
+     */
+    public Map<Integer, BorrowServiceException> validateAll(List<BorrowRequest> requests) {
+        Set<Long> bookIds = new LinkedHashSet<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (BorrowRequest request : requests) {
+            bookIds.add(request.getBookId());
+            userIds.add(request.getUserId());
+        }
+
+        CompletableFuture<Map<Long, Boolean>> books;
+        try {
+            books = CompletableFuture.supplyAsync(() -> bookAvailabilityCoalescer.areAvailable(bookIds), executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Borrow validation executor is saturated, rejecting bulk borrow request");
+            throw new BorrowServiceException("Too many borrow requests are being validated, please retry", e);
+        }
+        Map<Long, Boolean> activeUsers = new HashMap<>();
+        for (Long userId : userIds) {
+            activeUsers.put(userId, userStatusCache.isActive(userId));
+        }
+        Map<Long, Boolean> availableBooks = awaitBulk(books);
+
+        Map<Integer, BorrowServiceException> failures = new HashMap<>();
+        Set<Long> claimedBooks = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BorrowRequest request = requests.get(i);
+            if (!activeUsers.get(request.getUserId())) {
+                logger.warn("User not active: {}", request.getUserId());
+                failures.put(i, new UserNotActiveException("User is not active"));
+            } else if (!availableBooks.getOrDefault(request.getBookId(), false) || !claimedBooks.add(request.getBookId())) {
+                logger.warn("Book not available: {}", request.getBookId());
+                failures.put(i, new BookNotAvailableException("Book is not available"));
+            }
+        }
+        return failures;
+    }
+
+    private Map<Long, Boolean> awaitBulk(CompletableFuture<Map<Long, Boolean>> lookup) {
+        try {
+            return lookup.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            logger.warn("Bulk borrow validation did not finish within {}", timeout);
+            throw new BorrowServiceException("Timed out validating borrow request");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BorrowServiceException("Interrupted while validating borrow request", e);
+        } catch (ExecutionException e) {
+            throw new BorrowServiceException("Borrow validation failed", e.getCause());
+        }
+    }
+
+    private void runAll(List<Callable<Void>> checks) {
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> futures = new ArrayList<>(checks.size());
+        try {
+            for (Callable<Void> check : checks) {
+                futures.add(completionService.submit(check));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            logger.warn("Borrow validation executor is saturated, rejecting borrow request");
+            throw new BorrowServiceException("Too many borrow requests are being validated, please retry", e);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        int failedIndex = -1;
+        Throwable failure = null;
+        try {
+            for (int pending = futures.size(); pending > 0; pending--) {
+                Future<Void> completed = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (completed == null) {
+                    futures.forEach(future -> future.cancel(true));
+                    logger.warn("Borrow validation did not finish within {}", timeout);
+                    throw new BorrowServiceException("Timed out validating borrow request");
+                }
+
+                int index = futures.indexOf(completed);
+                try {
+                    completed.get();
+                } catch (CancellationException e) {
+                    // Cancelled because an earlier check already failed
+                } catch (ExecutionException e) {
+                    if (failedIndex == -1 || index < failedIndex) {
+                        failedIndex = index;
+                        failure = e.getCause();
+                        for (int i = index + 1; i < futures.size(); i++) {
+                            futures.get(i).cancel(true);
+                        }
+                    }
+                }
+
+                if (failedIndex != -1 && allDone(futures.subList(0, failedIndex))) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new BorrowServiceException("Interrupted while validating borrow request", e);
+        }
+
+        // Earlier checks may have failed too without being polled yet; the earliest failure wins
+        for (int i = 0; i < failedIndex; i++) {
+            Throwable earlier = failureOf(futures.get(i));
+            if (earlier != null) {
+                failure = earlier;
+                break;
+            }
+        }
+
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        if (failure != null) {
+            throw new BorrowServiceException("Borrow validation failed", failure);
+        }
+    }
+
+    private static Throwable failureOf(Future<Void> done) {
+        try {
+            done.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException | InterruptedException e) {
+            return null;
+        }
+    }
+
+    private static boolean allDone(List<Future<Void>> futures) {
+        return futures.stream().allMatch(Future::isDone);
+    }
+
+    private static Executor createExecutor(Environment environment, int maxConcurrency, int queueCapacity) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // One virtual thread per check; the HTTP client pools bound the calls actually in flight
+            logger.debug("Using virtual threads for borrow validation");
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("borrow-validation-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        logger.debug("Using a bounded thread pool of {} threads for borrow validation", maxConcurrency);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("borrow-validation-");
+        // When saturated, reject: running the check on the request thread would escape the deadline
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        TaskExecutors.shutdown(executor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bits.borrowservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Loading and updating for the borrow caches without blocking inside the cache's map.
+ * <p>
+ * A synchronous Caffeine {@code get(key, loader)} runs the loader inside {@code ConcurrentHashMap.compute},
+ * which holds a monitor on the hash bin for the whole database call. On Java 21 a virtual thread holding a
+ * monitor cannot unmount, so every cache miss would pin a carrier thread. Here the map only receives an
+ * incomplete future; the caller that created it runs the loader on its own thread and completes it, and
+ * concurrent callers for the same key wait on that future, which parks a virtual thread normally.
+ */
+final class CallerLoads {
+
+    private CallerLoads() {
+    }
+
+    /**
+     * Returns the cached value, loading it with {@code loader} on the calling thread on a miss. Concurrent
+     * misses for the same key share one load; a {@code null} result or a failure is not cached.
+     */
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        boolean[] created = new boolean[1];
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> {
+            created[0] = true;
+            return loading;
+        });
+        if (!created[0]) {
+            return join(future);
+        }
+
+        try {
+            V value = loader.apply(key);
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces a loaded value with {@code update} applied to it. An entry still loading is dropped instead,
+     * since its result may predate the change; the next lookup loads it again.
+     */
+    static <K, V> void replaceIfPresent(AsyncCache<K, V> cache, K key, UnaryOperator<V> update) {
+        cache.asMap().computeIfPresent(key, (k, future) -> {
+            V current = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+            return current != null ? CompletableFuture.completedFuture(update.apply(current)) : null;
+        });
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
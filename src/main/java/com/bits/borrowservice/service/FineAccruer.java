@@ -0,0 +1,144 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.FineAccrualRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Accrues the fines of loans past their due date, so outstanding fines are visible before the books come back.
+ * <p>
+ * Work is split like the {@link OverdueSweeper}: {@code borrow.fine-accrual.partitions} hash partitions of the
+ * borrow ID, each served by its own range of the {@code idx_borrows_open_partition} expression index, leased
+ * one at a time from {@code job_partition_leases} by the workers of every replica. Each
+ * partition is processed in chunks of {@code borrow.fine-accrual.chunk-size} loans in ID order, one statement
+ * and one transaction per chunk (see {@link FineAccrualRepository}), so memory stays bounded by the chunk.
+ * <p>
+ * A run accrues up to the time it started. Accrual is idempotent, so a partition whose lease was lost or
+ * that failed is simply processed again by the next replica that claims it, a failed one only after
+ * {@code borrow.fine-accrual.retry-delay} (see {@link PartitionedJobRunner}); loans skipped because a return held
+ * their lock are accrued by that return, and those skipped for a fine settlement by the next run.
+ */
+@Service
+public class FineAccruer {
+    private static final Logger logger = LoggerFactory.getLogger(FineAccruer.class);
+    private static final String JOB_NAME = "fine-accrual";
+
+    private final FineAccrualRepository accrualRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final PartitionedJobRunner runner;
+    private final Timer runTimer;
+    private final Counter rowsScanned;
+    private final Counter finesAccrued;
+    private final DistributionSummary rowsPerSecond;
+
+    @Value("${borrow.fine-per-day}")
+    private BigDecimal finePerDay;
+
+    @Value("${borrow.fine-accrual.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${borrow.fine-accrual.partitions:16}")
+    private int partitions;
+
+    @Value("${borrow.fine-accrual.lease:5m}")
+    private Duration lease;
+
+    // A partition completed less than this long ago belongs to the current run and is not accrued again
+    @Value("${borrow.fine-accrual.min-interval:6h}")
+    private Duration minInterval;
+
+    @Value("${borrow.fine-accrual.retry-delay:15m}")
+    private Duration retryDelay;
+
+    public FineAccruer(FineAccrualRepository accrualRepository,
+                       JobPartitionLeaseRepository leaseRepository,
+                       PlatformTransactionManager transactionManager,
+                       InstanceId instanceId,
+                       MeterRegistry meterRegistry,
+                       @Value("${borrow.fine-accrual.parallelism:2}") int parallelism) {
+        this.accrualRepository = accrualRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.runner = new PartitionedJobRunner(JOB_NAME, leaseRepository, owner, parallelism);
+
+        this.runTimer = Timer.builder("borrow.fine.accrual")
+                .description("Duration of one fine accrual run on this replica")
+                .register(meterRegistry);
+        this.rowsScanned = Counter.builder("borrow.fine.accrual.rows")
+                .description("Overdue loans scanned by fine accrual")
+                .register(meterRegistry);
+        this.finesAccrued = Counter.builder("borrow.fine.accrual.updated")
+                .description("Pending fines created or increased by fine accrual")
+                .register(meterRegistry);
+        this.rowsPerSecond = DistributionSummary.builder("borrow.fine.accrual.rows.per.second")
+                .description("Overdue loans scanned per second in a fine accrual run on this replica")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    @Scheduled(cron = "${borrow.fine-accrual.cron:0 15 0 * * *}")
+    public void accrue() {
+        logger.debug("Running scheduled fine accrual");
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = LocalDateTime.now();
+        long total = runner.run(partitions, lease, minInterval, retryDelay, partition -> accruePartition(partition, now));
+
+        long elapsedNanos = sample.stop(runTimer);
+        double perSecond = total * 1_000_000_000.0 / Math.max(elapsedNanos, 1);
+        if (total > 0) {
+            rowsPerSecond.record(perSecond);
+        }
+        logger.info("Fine accrual scanned {} overdue borrows on {} in {} ms ({} rows/s)",
+                total, owner, elapsedNanos / 1_000_000, Math.round(perSecond));
+    }
+
+    private long accruePartition(int partition, LocalDateTime now) {
+        long afterId = 0;
+        long total = 0;
+        FineAccrualRepository.ChunkResult chunk;
+        do {
+            long cursorId = afterId;
+            chunk = transactionTemplate.execute(status -> accrualRepository.accrueChunk(
+                    partition, partitions, now, finePerDay, cursorId, chunkSize));
+            if (chunk.scanned() == 0) {
+                break;
+            }
+
+            afterId = chunk.lastId();
+            total += chunk.scanned();
+            rowsScanned.increment(chunk.scanned());
+            finesAccrued.increment(chunk.accrued());
+            logger.debug("Accrued {} fines over {} borrows in partition {} up to borrow ID {}",
+                    chunk.accrued(), chunk.scanned(), partition, afterId);
+
+            if (!leaseRepository.renew(JOB_NAME, partition, owner, lease)) {
+                logger.warn("Lost lease on fine accrual partition {}, stopping", partition);
+                break;
+            }
+        } while (chunk.scanned() == chunkSize);
+        return total;
+    }
+}
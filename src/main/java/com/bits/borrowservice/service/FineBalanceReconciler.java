@@ -0,0 +1,83 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.UserFineBalanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Repairs drift between {@code user_fine_balances} and the PENDING rows in {@code fines}, e.g. after manual
+ * data fixes. Runs on one replica per schedule, which takes the job's single lease partition.
+ */
+@Service
+public class FineBalanceReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(FineBalanceReconciler.class);
+    private static final String JOB_NAME = "fine-balance-reconcile";
+    private static final int PARTITION = 0;
+
+    private final UserFineBalanceRepository balanceRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Counter repaired;
+
+    @Value("${borrow.fine-balance.reconcile.lease:10m}")
+    private Duration lease;
+
+    @Value("${borrow.fine-balance.reconcile.min-interval:1h}")
+    private Duration minInterval;
+
+    public FineBalanceReconciler(UserFineBalanceRepository balanceRepository,
+                                 JobPartitionLeaseRepository leaseRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 InstanceId instanceId,
+                                 MeterRegistry meterRegistry) {
+        this.balanceRepository = balanceRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.repaired = Counter.builder("borrow.fine.balance.repaired")
+                .description("Per-user fine balances corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${borrow.fine-balance.reconcile.cron:0 45 3 * * *}")
+    public void reconcile() {
+        leaseRepository.ensurePartitions(JOB_NAME, 1);
+        if (leaseRepository.claimNext(JOB_NAME, 1, owner, lease, minInterval).isEmpty()) {
+            logger.debug("Fine balance reconciliation already running or done on another replica");
+            return;
+        }
+
+        try {
+            List<Long> drifted = balanceRepository.findDrifted();
+            int corrected = 0;
+            for (Long userId : drifted) {
+                UserFineBalanceRepository.Recount recount =
+                        transactionTemplate.execute(status -> balanceRepository.recount(userId));
+                if (recount.previous().compareTo(recount.corrected()) != 0) {
+                    logger.warn("Corrected fine balance for user {} from {} to {}",
+                            userId, recount.previous(), recount.corrected());
+                    repaired.increment();
+                    corrected++;
+                }
+            }
+            leaseRepository.complete(JOB_NAME, PARTITION, owner);
+            logger.info("Fine balance reconciliation checked {} users and corrected {}", drifted.size(), corrected);
+        } catch (RuntimeException e) {
+            logger.error("Fine balance reconciliation failed: {}", e.getMessage(), e);
+            leaseRepository.release(JOB_NAME, PARTITION, owner);
+        }
+    }
+}
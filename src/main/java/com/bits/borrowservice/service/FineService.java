@@ -0,0 +1,88 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.FineBalanceResponse;
+import com.bits.borrowservice.dto.response.FineResponse;
+import com.bits.borrowservice.entity.Fine;
+import com.bits.borrowservice.exception.FineNotFoundException;
+import com.bits.borrowservice.exception.InvalidFineStatusException;
+import com.bits.borrowservice.repository.BorrowRepository;
+import com.bits.borrowservice.repository.FineHistoryRepository;
+import com.bits.borrowservice.repository.FineRepository;
+import com.bits.borrowservice.repository.UserFineBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+@Service
+@RequiredArgsConstructor
+public class FineService {
+    private static final Logger logger = LoggerFactory.getLogger(FineService.class);
+
+    private final FineRepository fineRepository;
+    private final FineHistoryRepository fineHistoryRepository;
+    private final UserFineBalanceRepository fineBalanceRepository;
+    private final BorrowRepository borrowRepository;
+
+    /**
+     * The user's outstanding fines, read from {@code user_fine_balances} with one primary-key lookup.
+     */
+    @Transactional(readOnly = true)
+    public FineBalanceResponse getBalance(Long userId) {
+        logger.debug("Getting fine balance for user ID: {}", userId);
+        return fineBalanceRepository.find(userId)
+                .orElseGet(() -> new FineBalanceResponse(userId, BigDecimal.ZERO, 0, null));
+    }
+
+    /**
+     * The user's fines, including settled fines already moved to the archive with their loan.
+     */
+    @Transactional(readOnly = true)
+    public Page<FineResponse> getUserFines(Long userId, Pageable pageable) {
+        logger.debug("Getting fines for user ID: {} with pageable: {}", userId, pageable);
+        Page<FineResponse> fines = fineHistoryRepository.findByUserId(userId, pageable).map(FineResponse::fromHistory);
+        logger.debug("Found {} fines for user {}", fines.getTotalElements(), userId);
+        return fines;
+    }
+
+    @Transactional
+    public FineResponse payFine(Long fineId) {
+        logger.debug("Processing payment for fine ID: {}", fineId);
+        return settle(fineId, Fine.FineStatus.PAID);
+    }
+
+    @Transactional
+    public FineResponse waiveFine(Long fineId) {
+        logger.debug("Processing waiver for fine ID: {}", fineId);
+        return settle(fineId, Fine.FineStatus.WAIVED);
+    }
+
+    // Settles the fine and takes it off the owner's balance in the same transaction. The loan is locked first,
+    // like returns and fine accrual do, so a concurrent accrual cannot raise the fine between the settlement
+    // and the balance update, or insert a new pending fine computed before the settlement.
+    private FineResponse settle(Long fineId, Fine.FineStatus status) {
+        Long borrowId = fineRepository.findWithBorrowById(fineId)
+                .orElseThrow(() -> {
+                    logger.warn("Fine not found: {}", fineId);
+                    return new FineNotFoundException("Fine not found");
+                })
+                .getBorrow().getId();
+        borrowRepository.findByIdForUpdate(borrowId);
+
+        boolean settled = fineRepository.settle(fineId, status) == 1;
+        Fine fine = fineRepository.findWithBorrowById(fineId).orElseThrow();
+        if (!settled) {
+            logger.warn("Invalid fine status for settlement: {}", fine.getStatus());
+            throw new InvalidFineStatusException("Only pending fines can be paid or waived");
+        }
+
+        fineBalanceRepository.adjust(fine.getBorrow().getUserId(), fine.getAmount().negate(), -1);
+        logger.debug("Fine {} of {} for user {} is now {}", fineId, fine.getAmount(), fine.getBorrow().getUserId(), status);
+        return FineResponse.fromEntity(fine);
+    }
+}
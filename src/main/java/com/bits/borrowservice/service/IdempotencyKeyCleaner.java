@@ -0,0 +1,86 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.IdempotencyKeyRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired rows from {@code idempotency_keys} in batches of {@code borrow.idempotency.cleanup.batch-size},
+ * each committed on its own. Runs on one replica per schedule, which takes the job's single lease partition.
+ */
+@Service
+public class IdempotencyKeyCleaner {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyCleaner.class);
+    private static final String JOB_NAME = "idempotency-key-cleanup";
+    private static final int PARTITION = 0;
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Counter deleted;
+
+    @Value("${borrow.idempotency.cleanup.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${borrow.idempotency.cleanup.lease:5m}")
+    private Duration lease;
+
+    @Value("${borrow.idempotency.cleanup.min-interval:30m}")
+    private Duration minInterval;
+
+    public IdempotencyKeyCleaner(IdempotencyKeyRepository keyRepository,
+                                 JobPartitionLeaseRepository leaseRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 InstanceId instanceId,
+                                 MeterRegistry meterRegistry) {
+        this.keyRepository = keyRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.deleted = Counter.builder("borrow.idempotency.keys.deleted")
+                .description("Expired idempotency keys deleted")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${borrow.idempotency.cleanup.cron:0 5 * * * *}")
+    public void cleanUp() {
+        leaseRepository.ensurePartitions(JOB_NAME, 1);
+        if (leaseRepository.claimNext(JOB_NAME, 1, owner, lease, minInterval).isEmpty()) {
+            logger.debug("Idempotency key cleanup already running or done on another replica");
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long total = 0;
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> keyRepository.deleteExpired(now, batchSize));
+                total += batch;
+                deleted.increment(batch);
+                if (!leaseRepository.renew(JOB_NAME, PARTITION, owner, lease)) {
+                    logger.warn("Lost lease on idempotency key cleanup, stopping");
+                    return;
+                }
+            } while (batch == batchSize);
+            leaseRepository.complete(JOB_NAME, PARTITION, owner);
+            logger.info("Idempotency key cleanup deleted {} expired keys", total);
+        } catch (RuntimeException e) {
+            logger.error("Idempotency key cleanup failed: {}", e.getMessage(), e);
+            leaseRepository.release(JOB_NAME, PARTITION, owner);
+        }
+    }
+}
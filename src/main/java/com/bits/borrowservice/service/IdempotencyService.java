@@ -0,0 +1,234 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.bits.borrowservice.exception.IdempotencyKeyInProgressException;
+import com.bits.borrowservice.exception.IdempotencyKeyMismatchException;
+import com.bits.borrowservice.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried borrow, return and extension requests that carry an {@value #HEADER} header.
+ * <p>
+ * A key is claimed in {@code idempotency_keys} in the same transaction as the operation and completed with its
+ * response before commit, so an operation and its key commit or roll back together. A repeated key is answered
+ * with the stored response without running the operation again:
+ * <ul>
+ *     <li>from a bounded local cache of recently completed keys, without a database round trip;</li>
+ *     <li>by waiting on the request still in flight for the key on this replica;</li>
+ *     <li>from the table, where a duplicate on another replica waits on the key's unique index until the first
+ *     request commits, at most {@code borrow.idempotency.wait-timeout}.</li>
+ * </ul>
+ * Keys are scoped to the authenticated principal, which is the subject of the caller's token, so two users that
+ * send the same key do not see each other's responses. A key reused for a different request is rejected. Failed
+ * operations are not stored, so the client's retry runs again.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ANONYMOUS = "anonymous";
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Completed> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter replayedFromCache;
+    private final Counter replayedInFlight;
+    private final Counter replayedFromDatabase;
+
+    @Value("${borrow.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${borrow.idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+
+    public IdempotencyService(IdempotencyKeyRepository keyRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${borrow.idempotency.cache.ttl:10m}") Duration cacheTtl,
+                              @Value("${borrow.idempotency.cache.maximum-size:50000}") long cacheMaximumSize) {
+        this.keyRepository = keyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency-keys");
+        this.replayedFromCache = replayCounter(meterRegistry, "cache");
+        this.replayedInFlight = replayCounter(meterRegistry, "in-flight");
+        this.replayedFromDatabase = replayCounter(meterRegistry, "database");
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("borrow.idempotency.replayed")
+                .description("Requests answered with the stored response of an earlier request with the same key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The response of an operation and whether it was replayed from an earlier request.
+     */
+    public record Result(BorrowResponse response, boolean replayed) {
+    }
+
+    private record Completed(String fingerprint, BorrowResponse response) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<BorrowResponse> response) {
+    }
+
+    /**
+     * Runs {@code operation} once per {@code key}. Without a key the operation simply runs.
+     *
+     * @param fingerprint identifies the request, e.g. the operation and its arguments; a repeated key must come
+     *                    with the same fingerprint
+     */
+    public Result execute(String key, String fingerprint, Supplier<BorrowResponse> operation) {
+        if (key == null) {
+            return new Result(operation.get(), false);
+        }
+        checkKey(key);
+        return run(principal() + ":" + key, fingerprint, operation);
+    }
+
+    private Result run(String key, String fingerprint, Supplier<BorrowResponse> operation) {
+        Completed done = completed.getIfPresent(key);
+        if (done != null) {
+            checkFingerprint(key, fingerprint, done.fingerprint());
+            logger.debug("Replaying cached response for idempotency key {}", key);
+            replayedFromCache.increment();
+            return new Result(done.response(), true);
+        }
+
+        InFlight call = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return awaitInFlight(key, fingerprint, existing);
+        }
+
+        try {
+            Result result = transactionTemplate.execute(status -> claimAndRun(key, fingerprint, operation));
+            completed.put(key, new Completed(fingerprint, result.response()));
+            call.response().complete(result.response());
+            return result;
+        } catch (RuntimeException e) {
+            call.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private Result claimAndRun(String key, String fingerprint, Supplier<BorrowResponse> operation) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimed;
+        try {
+            claimed = keyRepository.claim(key, fingerprint, now, now.plus(ttl), waitTimeout);
+        } catch (PessimisticLockingFailureException e) {
+            // Another replica's request still holds an uncommitted claim for the key
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        }
+        if (claimed) {
+            BorrowResponse response = operation.get();
+            keyRepository.complete(key, serialize(response));
+            return new Result(response, false);
+        }
+
+        IdempotencyKeyRepository.StoredKey stored = keyRepository.find(key)
+                .filter(IdempotencyKeyRepository.StoredKey::isCompleted)
+                .orElseThrow(() -> new IdempotencyKeyInProgressException(
+                        "A request with this Idempotency-Key is still in progress"));
+        checkFingerprint(key, fingerprint, stored.fingerprint());
+        logger.debug("Replaying stored response for idempotency key {}", key);
+        replayedFromDatabase.increment();
+        return new Result(deserialize(stored.response()), true);
+    }
+
+    private Result awaitInFlight(String key, String fingerprint, InFlight existing) {
+        checkFingerprint(key, fingerprint, existing.fingerprint());
+        logger.debug("Waiting for in-flight request with idempotency key {}", key);
+        try {
+            BorrowResponse response = existing.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            replayedInFlight.increment();
+            return new Result(response, true);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            // The first request failed and stored nothing; its outcome is this one's too
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : ANONYMOUS;
+    }
+
+    private static void checkKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BorrowServiceException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private static void checkFingerprint(String key, String fingerprint, String storedFingerprint) {
+        if (!fingerprint.equals(storedFingerprint)) {
+            logger.warn("Idempotency key {} reused for {}, first used for {}", key, fingerprint, storedFingerprint);
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String serialize(BorrowResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response for idempotency key", e);
+        }
+    }
+
+    private BorrowResponse deserialize(String response) {
+        try {
+            return objectMapper.readValue(response, BorrowResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored response for idempotency key", e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.event.BorrowEventPublisher;
+import com.bits.borrowservice.repository.BorrowJdbcRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.UserBorrowCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Marks loans past their due date as OVERDUE.
+ * <p>
+ * The borrows table is split into {@code borrow.overdue-sweep.partitions} hash partitions of the borrow ID,
+ * each served by its own range of the {@code idx_borrows_open_due_partition} expression index.
+ * Every replica runs the job at the same time; each of its workers leases one partition at a time from
+ * {@code job_partition_leases}, so replicas share the work instead of repeating it. A partition whose lease
+ * expired (its replica crashed) is picked up by the next replica that looks for work.
+ * <p>
+ * Within a partition the sweep works in chunks of {@code borrow.overdue-sweep.chunk-size}: each chunk is one
+ * {@code UPDATE ... RETURNING} over the next keyset range of {@code (due_date, id)}. The owners' active-borrow
+ * counters and the due-date outbox events are written in the same transaction, which is committed before the
+ * next chunk starts.
+ * <p>
+ * A partition that fails is retried after {@code borrow.overdue-sweep.retry-delay} (see
+ * {@link PartitionedJobRunner}).
+ */
+@Service
+public class OverdueSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweeper.class);
+    private static final String JOB_NAME = "overdue-sweep";
+    private static final LocalDateTime START_OF_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BorrowJdbcRepository borrowJdbcRepository;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final UserBorrowCounterRepository borrowCounterRepository;
+    private final BorrowEventPublisher eventPublisher;
+    private final BorrowCacheCoordinator cacheCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final PartitionedJobRunner runner;
+    private final Timer sweepTimer;
+    private final Counter rowsProcessed;
+    private final Counter partitionsSwept;
+    private final DistributionSummary rowsPerRun;
+
+    @Value("${borrow.overdue-sweep.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${borrow.overdue-sweep.partitions:16}")
+    private int partitions;
+
+    @Value("${borrow.overdue-sweep.lease:5m}")
+    private Duration lease;
+
+    // A partition completed less than this long ago belongs to the current run and is not swept again
+    @Value("${borrow.overdue-sweep.min-interval:10m}")
+    private Duration minInterval;
+
+    @Value("${borrow.overdue-sweep.retry-delay:5m}")
+    private Duration retryDelay;
+
+    public OverdueSweeper(BorrowJdbcRepository borrowJdbcRepository,
+                          JobPartitionLeaseRepository leaseRepository,
+                          UserBorrowCounterRepository borrowCounterRepository,
+                          BorrowEventPublisher eventPublisher,
+                          BorrowCacheCoordinator cacheCoordinator,
+                          PlatformTransactionManager transactionManager,
+                          InstanceId instanceId,
+                          MeterRegistry meterRegistry,
+                          @Value("${borrow.overdue-sweep.parallelism:2}") int parallelism) {
+        this.borrowJdbcRepository = borrowJdbcRepository;
+        this.leaseRepository = leaseRepository;
+        this.borrowCounterRepository = borrowCounterRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheCoordinator = cacheCoordinator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = instanceId.getValue();
+        this.runner = new PartitionedJobRunner(JOB_NAME, leaseRepository, owner, parallelism);
+
+        this.sweepTimer = Timer.builder("borrow.overdue.sweep")
+                .description("Duration of one overdue sweep run on this replica")
+                .register(meterRegistry);
+        this.rowsProcessed = Counter.builder("borrow.overdue.sweep.rows")
+                .description("Loans marked overdue")
+                .register(meterRegistry);
+        this.partitionsSwept = Counter.builder("borrow.overdue.sweep.partitions")
+                .description("Partitions swept by this replica")
+                .register(meterRegistry);
+        this.rowsPerRun = DistributionSummary.builder("borrow.overdue.sweep.rows.per.run")
+                .description("Loans marked overdue per sweep run on this replica")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    @Scheduled(cron = "${borrow.overdue-sweep.cron:0 0 * * * *}")
+    public void sweep() {
+        logger.debug("Running scheduled check for overdue borrows");
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = LocalDateTime.now();
+        long total = runner.run(partitions, lease, minInterval, retryDelay, partition -> {
+            long marked = sweepPartition(partition, now);
+            partitionsSwept.increment();
+            return marked;
+        });
+
+        rowsPerRun.record(total);
+        long elapsedNanos = sample.stop(sweepTimer);
+        logger.info("Overdue sweep marked {} borrows overdue on {} in {} ms", total, owner, elapsedNanos / 1_000_000);
+    }
+
+    private long sweepPartition(int partition, LocalDateTime now) {
+        LocalDateTime afterDueDate = START_OF_TIME;
+        long afterId = 0;
+        long total = 0;
+        List<Borrow> chunk;
+        do {
+            LocalDateTime cursorDueDate = afterDueDate;
+            long cursorId = afterId;
+            chunk = transactionTemplate.execute(status -> {
+                List<Borrow> marked = borrowJdbcRepository.markOverdueChunk(
+                        partition, partitions, now, cursorDueDate, cursorId, chunkSize);
+                if (!marked.isEmpty()) {
+                    // Overdue loans no longer count as active borrows
+                    Map<Long, Integer> overdueByUser = marked.stream()
+                            .collect(Collectors.groupingBy(Borrow::getUserId, Collectors.summingInt(borrow -> 1)));
+                    borrowCounterRepository.decrementAll(overdueByUser);
+                    eventPublisher.publishDueDateEvents(marked);
+                    cacheCoordinator.updateAfterCommit(marked);
+                }
+                return marked;
+            });
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Borrow last = chunk.stream()
+                    .max(Comparator.comparing(Borrow::getDueDate).thenComparing(Borrow::getId))
+                    .orElseThrow();
+            afterDueDate = last.getDueDate();
+            afterId = last.getId();
+            total += chunk.size();
+            rowsProcessed.increment(chunk.size());
+            logger.debug("Marked {} borrows overdue in partition {} up to borrow ID {}", chunk.size(), partition, afterId);
+
+            if (!leaseRepository.renew(JOB_NAME, partition, owner, lease)) {
+                logger.warn("Lost lease on overdue sweep partition {}, stopping", partition);
+                break;
+            }
+        } while (chunk.size() == chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a scheduled job split into hash partitions leased from {@code job_partition_leases}.
+ * <p>
+ * Each of the {@code parallelism} workers claims one partition at a time, processes it and marks it completed,
+ * until no partition is left to claim. A partition that fails is released with a retry delay, so the workers
+ * go on with the other partitions instead of claiming it again straight away; a later claim processes it
+ * once the delay has passed.
+ */
+final class PartitionedJobRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedJobRunner.class);
+
+    @FunctionalInterface
+    interface PartitionTask {
+        /**
+         * Processes one leased partition and returns the number of rows it handled.
+         */
+        long process(int partition);
+    }
+
+    private final String jobName;
+    private final JobPartitionLeaseRepository leaseRepository;
+    private final String owner;
+    private final int parallelism;
+    private final ThreadPoolTaskExecutor workers;
+
+    PartitionedJobRunner(String jobName, JobPartitionLeaseRepository leaseRepository, String owner, int parallelism) {
+        this.jobName = jobName;
+        this.leaseRepository = leaseRepository;
+        this.owner = owner;
+        this.parallelism = parallelism;
+
+        this.workers = new ThreadPoolTaskExecutor();
+        workers.setCorePoolSize(parallelism);
+        workers.setMaxPoolSize(parallelism);
+        workers.setThreadNamePrefix(jobName + "-");
+        workers.initialize();
+    }
+
+    /**
+     * Processes every partition this replica can claim and returns the rows handled by all workers.
+     */
+    long run(int partitions, Duration lease, Duration minInterval, Duration retryDelay, PartitionTask task) {
+        leaseRepository.ensurePartitions(jobName, partitions);
+        List<CompletableFuture<Long>> runs = IntStream.range(0, parallelism)
+                .mapToObj(worker -> CompletableFuture.supplyAsync(
+                        () -> processClaimedPartitions(partitions, lease, minInterval, retryDelay, task), workers))
+                .toList();
+        return runs.stream().mapToLong(CompletableFuture::join).sum();
+    }
+
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private long processClaimedPartitions(int partitions, Duration lease, Duration minInterval, Duration retryDelay,
+                                          PartitionTask task) {
+        long total = 0;
+        OptionalInt claimed;
+        while ((claimed = leaseRepository.claimNext(jobName, partitions, owner, lease, minInterval)).isPresent()) {
+            int partition = claimed.getAsInt();
+            try {
+                total += task.process(partition);
+                leaseRepository.complete(jobName, partition, owner);
+            } catch (RuntimeException e) {
+                logger.error("Job {} failed on partition {}, retrying in {}: {}",
+                        jobName, partition, retryDelay, e.getMessage(), e);
+                leaseRepository.release(jobName, partition, owner, retryDelay);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+-- Hot/archive split: RETURNED loans (with no pending fine) are moved out of borrows, together with
+-- their returns, fines and extensions, by BorrowArchiver. The hot tables and their indexes then only
+-- hold open and recently closed loans.
+
+-- Archived loans, range-partitioned by borrow_date; yearly partitions are created by the archiver
+-- before it moves rows into them. Archive tables copy the hot tables' columns in the same order, so
+-- a column added to a hot table must be added to its archive table as well.
+CREATE TABLE borrows_archive (LIKE borrows) PARTITION BY RANGE (borrow_date);
+ALTER TABLE borrows_archive ADD PRIMARY KEY (id, borrow_date);
+CREATE INDEX idx_borrows_archive_user_borrow_date ON borrows_archive(user_id, borrow_date DESC, id DESC);
+CREATE INDEX idx_borrows_archive_book_borrow_date ON borrows_archive(book_id, borrow_date DESC, id DESC);
+CREATE INDEX idx_borrows_archive_id ON borrows_archive(id);
+
+CREATE TABLE returns_archive (LIKE returns);
+ALTER TABLE returns_archive ADD PRIMARY KEY (id);
+CREATE INDEX idx_returns_archive_borrow_id ON returns_archive(borrow_id);
+
+CREATE TABLE fines_archive (LIKE fines);
+ALTER TABLE fines_archive ADD PRIMARY KEY (id);
+CREATE INDEX idx_fines_archive_borrow_id ON fines_archive(borrow_id);
+
+CREATE TABLE borrow_extensions_archive (LIKE borrow_extensions);
+ALTER TABLE borrow_extensions_archive ADD PRIMARY KEY (id);
+CREATE INDEX idx_borrow_extensions_archive_borrow_id ON borrow_extensions_archive(borrow_id);
+
+-- Child lookups by loan on the hot tables, used when moving a loan's rows
+CREATE INDEX idx_returns_borrow_id ON returns(borrow_id);
+CREATE INDEX idx_fines_borrow_id ON fines(borrow_id);
+CREATE INDEX idx_borrow_extensions_borrow_id ON borrow_extensions(borrow_id);
+
+-- Candidates for archival
+CREATE INDEX idx_borrows_returned_updated_at ON borrows(updated_at, id) WHERE status = 'RETURNED';
+
+-- All loans, hot and archived, for the history endpoints
+CREATE VIEW borrow_history AS
+SELECT id, user_id, book_id, borrow_date, due_date, status, extension_count, created_at, updated_at FROM borrows
+UNION ALL
+SELECT id, user_id, book_id, borrow_date, due_date, status, extension_count, created_at, updated_at FROM borrows_archive;
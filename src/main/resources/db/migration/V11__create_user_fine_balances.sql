@@ -0,0 +1,20 @@
+-- Create user_fine_balances table
+-- Sum and number of PENDING fines per user, kept in step by returns and by fine payments and waivers so a
+-- user's balance is one primary-key lookup instead of a SUM over their fines.
+CREATE TABLE user_fine_balances (
+    user_id BIGINT PRIMARY KEY,
+    outstanding DECIMAL(12,2) NOT NULL DEFAULT 0,
+    pending_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT outstanding_check CHECK (outstanding >= 0),
+    CONSTRAINT pending_count_check CHECK (pending_count >= 0)
+);
+
+INSERT INTO user_fine_balances (user_id, outstanding, pending_count)
+SELECT b.user_id, SUM(f.amount), COUNT(*)
+FROM fines f JOIN borrows b ON b.id = f.borrow_id
+WHERE f.status = 'PENDING'
+GROUP BY b.user_id;
+
+-- Pending fines are few compared to all fines; reconciliation sums only these
+CREATE INDEX idx_fines_pending_borrow_id ON fines(borrow_id) WHERE status = 'PENDING';
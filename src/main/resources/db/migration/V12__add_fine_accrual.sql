@@ -0,0 +1,8 @@
+-- Nightly fine accrual keeps one PENDING fine per loan up to date while the loan is overdue
+ALTER TABLE fines ADD COLUMN last_accrued_at TIMESTAMP;
+-- Same column order as fines, which the archiver copies with SELECT *
+ALTER TABLE fines_archive ADD COLUMN last_accrued_at TIMESTAMP;
+
+-- At most one pending fine per loan; accrual and returns upsert against it
+DROP INDEX idx_fines_pending_borrow_id;
+CREATE UNIQUE INDEX uq_fines_pending_borrow_id ON fines(borrow_id) WHERE status = 'PENDING';
@@ -0,0 +1,15 @@
+-- Create idempotency_keys table
+-- One row per Idempotency-Key sent with a borrow, return or extension. The row is inserted before the operation
+-- runs and completed with its response in the same transaction, so a concurrent duplicate waits on the key's
+-- unique index until the first request commits (and then replays its response) or rolls back (and then runs).
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_fingerprint VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT idempotency_status_check CHECK (status IN ('IN_PROGRESS', 'COMPLETED'))
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,4 @@
+-- Partitioned keyset index for the overdue sweeper: each partition's open loans, ordered by (due_date, id).
+-- The modulus must equal borrow.overdue-sweep.partitions (default 16); with another partition count the sweep
+-- falls back to idx_borrows_open_due_date and filters partitions row by row, so recreate this index to match.
+CREATE INDEX idx_borrows_open_due_partition ON borrows(mod(id, 16), due_date, id) WHERE status = 'BORROWED';
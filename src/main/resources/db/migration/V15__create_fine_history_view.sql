@@ -0,0 +1,8 @@
+-- All fines, hot and archived, with the user of their loan, for the fine listing. Settled fines are
+-- archived with their loan, so reading only the hot fines table would lose them.
+CREATE VIEW fine_history AS
+SELECT f.id, f.borrow_id, b.user_id, f.amount, f.status, f.created_at, f.updated_at
+FROM fines f JOIN borrows b ON b.id = f.borrow_id
+UNION ALL
+SELECT f.id, f.borrow_id, b.user_id, f.amount, f.status, f.created_at, f.updated_at
+FROM fines_archive f JOIN borrows_archive b ON b.id = f.borrow_id;
@@ -0,0 +1,4 @@
+-- Partitioned index for fine accrual: each partition's open loans in ID order, the order chunks are read in.
+-- The modulus must equal borrow.fine-accrual.partitions (default 16); with another partition count accrual
+-- filters partitions row by row, so recreate this index to match.
+CREATE INDEX idx_borrows_open_partition ON borrows(mod(id, 16), id) WHERE status IN ('BORROWED', 'OVERDUE');
@@ -0,0 +1,3 @@
+-- Keys are stored as "<principal>:<Idempotency-Key>", so the column must fit a principal name in front of a
+-- 255-character client key. Widening a VARCHAR does not rewrite the table.
+ALTER TABLE idempotency_keys ALTER COLUMN idempotency_key TYPE VARCHAR(512);
@@ -0,0 +1,17 @@
+-- Create book_status_outbox table
+-- Book status changes are recorded here in the borrow/return transaction and delivered
+-- to the book service afterwards by BookStatusOutboxDispatcher.
+CREATE TABLE book_status_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_until TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create indexes
+CREATE INDEX idx_book_status_outbox_book_id ON book_status_outbox(book_id, id);
+CREATE INDEX idx_book_status_outbox_next_attempt_at ON book_status_outbox(next_attempt_at);
@@ -0,0 +1,10 @@
+-- Create event_outbox table
+-- Borrow, return and due-date events are recorded here in the business transaction and
+-- relayed to Kafka in id order by OutboxEventRelay (at-least-once delivery).
+CREATE TABLE event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    event_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,2 @@
+-- Keyset index for the overdue sweeper: only open loans, ordered by (due_date, id)
+CREATE INDEX idx_borrows_open_due_date ON borrows(due_date, id) WHERE status = 'BORROWED';
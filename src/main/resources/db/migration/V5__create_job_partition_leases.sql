@@ -0,0 +1,13 @@
+-- Create job_partition_leases table
+-- Scheduled jobs split their work into hash partitions of borrows.id; replicas lease one
+-- partition at a time so every replica sweeps a different slice. An expired lease can be
+-- claimed by any replica.
+CREATE TABLE job_partition_leases (
+    job_name VARCHAR(50) NOT NULL,
+    partition_no INTEGER NOT NULL,
+    owner VARCHAR(100),
+    lease_until TIMESTAMP,
+    run_started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    PRIMARY KEY (job_name, partition_no)
+);
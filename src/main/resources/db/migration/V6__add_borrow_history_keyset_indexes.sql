@@ -0,0 +1,6 @@
+-- Keyset indexes for the history scroll endpoints, newest first: (borrow_date, id) within a user or book.
+-- They also serve equality lookups on user_id / book_id, so the single-column indexes are dropped.
+CREATE INDEX idx_borrows_user_borrow_date ON borrows(user_id, borrow_date DESC, id DESC);
+CREATE INDEX idx_borrows_book_borrow_date ON borrows(book_id, borrow_date DESC, id DESC);
+DROP INDEX idx_borrows_user_id;
+DROP INDEX idx_borrows_book_id;
@@ -0,0 +1,12 @@
+-- Create user_borrow_counters table
+-- Number of BORROWED loans per user, kept in step by borrow, return and the overdue sweeper so the
+-- borrow limit is one conditional upsert on a single row instead of a COUNT over the user's history.
+CREATE TABLE user_borrow_counters (
+    user_id BIGINT PRIMARY KEY,
+    active_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT active_count_check CHECK (active_count >= 0)
+);
+
+INSERT INTO user_borrow_counters (user_id, active_count)
+SELECT user_id, COUNT(*) FROM borrows WHERE status = 'BORROWED' GROUP BY user_id;
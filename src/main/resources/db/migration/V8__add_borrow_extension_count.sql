@@ -0,0 +1,6 @@
+-- Number of extensions per loan, so the extension limit is checked and bumped in the same UPDATE
+ALTER TABLE borrows ADD COLUMN extension_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE borrows b SET extension_count = e.extensions
+FROM (SELECT borrow_id, COUNT(*) AS extensions FROM borrow_extensions GROUP BY borrow_id) e
+WHERE e.borrow_id = b.id;
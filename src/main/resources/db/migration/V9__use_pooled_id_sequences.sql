@@ -0,0 +1,8 @@
+-- Let Hibernate allocate IDs in blocks of 50 (pooled-lo) so inserts can be JDBC-batched instead of
+-- waiting for an IDENTITY key per row. The column defaults keep using the same sequences; a plain
+-- nextval() takes the first ID of a fresh block, so it never collides with IDs Hibernate hands out.
+-- The outbox tables stay on per-row IDENTITY keys: their relays rely on IDs following insert order.
+ALTER SEQUENCE borrows_id_seq INCREMENT BY 50;
+ALTER SEQUENCE returns_id_seq INCREMENT BY 50;
+ALTER SEQUENCE fines_id_seq INCREMENT BY 50;
+ALTER SEQUENCE borrow_extensions_id_seq INCREMENT BY 50;
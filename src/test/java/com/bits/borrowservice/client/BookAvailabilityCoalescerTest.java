@@ -0,0 +1,143 @@
+package com.bits.borrowservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookAvailabilityCoalescerTest {
+
+    private BookServiceClient bookServiceClient;
+    private BookAvailabilityCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        bookServiceClient = mock(BookServiceClient.class);
+        coalescer = new BookAvailabilityCoalescer(bookServiceClient, new MockEnvironment(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(coalescer, "batchingEnabled", false);
+        ReflectionTestUtils.setField(coalescer, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(coalescer, "batchWindow", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(coalescer, "dispatchThreads", 2);
+        ReflectionTestUtils.setField(coalescer, "dispatchQueueCapacity", 10);
+        ReflectionTestUtils.setField(coalescer, "waitTimeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+    }
+
+    @Test
+    void concurrentLookupsForTheSameBookShareOneCall() throws Exception {
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookServiceClient.checkBookAvailability(1L)).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> coalescer.isAvailable(1L));
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> coalescer.isAvailable(1L));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(bookServiceClient, times(1)).checkBookAvailability(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timedOutLookupIsDroppedSoTheNextOneStartsAFreshCall() {
+        ReflectionTestUtils.setField(coalescer, "waitTimeout", Duration.ofMillis(50));
+        ConcurrentMap<Long, CompletableFuture<Boolean>> inFlight =
+                (ConcurrentMap<Long, CompletableFuture<Boolean>>) ReflectionTestUtils.getField(coalescer, "inFlight");
+        inFlight.put(1L, new CompletableFuture<>());
+        when(bookServiceClient.checkBookAvailability(1L)).thenReturn(true);
+
+        assertThat(coalescer.isAvailable(1L)).isFalse();
+        assertThat(inFlight).doesNotContainKey(1L);
+        assertThat(coalescer.isAvailable(1L)).isTrue();
+    }
+
+    @Test
+    void missingBulkEndpointFallsBackToPerIdLookupsOnce() {
+        ReflectionTestUtils.setField(coalescer, "batchingEnabled", true);
+        coalescer.start();
+        when(bookServiceClient.checkBooksAvailability(anyCollection())).thenThrow(
+                HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null));
+        when(bookServiceClient.checkBookAvailability(anyLong())).thenAnswer(invocation -> invocation.getArgument(0, Long.class) == 1L);
+
+        assertThat(coalescer.areAvailable(List.of(1L, 2L))).isEqualTo(Map.of(1L, true, 2L, false));
+        assertThat(coalescer.areAvailable(List.of(3L, 4L))).isEqualTo(Map.of(3L, false, 4L, false));
+
+        verify(bookServiceClient, times(1)).checkBooksAvailability(anyCollection());
+        verify(bookServiceClient, times(4)).checkBookAvailability(anyLong());
+    }
+
+    @Test
+    void bulkResultsAreUsedWhenTheEndpointExists() {
+        ReflectionTestUtils.setField(coalescer, "batchingEnabled", true);
+        coalescer.start();
+        when(bookServiceClient.checkBooksAvailability(anyCollection())).thenReturn(Map.of(1L, true, 2L, false));
+
+        assertThat(coalescer.areAvailable(List.of(1L, 2L))).isEqualTo(Map.of(1L, true, 2L, false));
+
+        verify(bookServiceClient, never()).checkBookAvailability(anyLong());
+    }
+
+    @Test
+    void dispatchQueueStaysBoundedWhileTheBookServiceStalls() throws Exception {
+        ReflectionTestUtils.setField(coalescer, "batchingEnabled", true);
+        ReflectionTestUtils.setField(coalescer, "maxBatchSize", 1);
+        ReflectionTestUtils.setField(coalescer, "batchWindow", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(coalescer, "dispatchThreads", 1);
+        ReflectionTestUtils.setField(coalescer, "dispatchQueueCapacity", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookServiceClient.checkBookAvailability(anyLong())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        coalescer.start();
+        ThreadPoolTaskExecutor dispatcher = (ThreadPoolTaskExecutor) ReflectionTestUtils.getField(coalescer, "dispatcher");
+
+        List<CompletableFuture<Map<Long, Boolean>>> lookups = new ArrayList<>();
+        for (long bookId = 1; bookId <= 10; bookId++) {
+            long id = bookId;
+            lookups.add(CompletableFuture.supplyAsync(() -> coalescer.areAvailable(List.of(id))));
+        }
+        Thread.sleep(200);
+
+        assertThat(dispatcher.getThreadPoolExecutor().getQueue()).hasSizeLessThanOrEqualTo(1);
+        release.countDown();
+        for (CompletableFuture<Map<Long, Boolean>> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS)).containsValue(true);
+        }
+    }
+}
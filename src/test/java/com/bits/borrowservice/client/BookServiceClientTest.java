@@ -0,0 +1,45 @@
+package com.bits.borrowservice.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BookServiceClientTest {
+
+    private MockRestServiceServer server;
+    private BookServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        client = new BookServiceClient(restTemplate);
+        ReflectionTestUtils.setField(client, "bookServiceUrl", "http://book-service");
+    }
+
+    @Test
+    void bulkAvailabilityIsReadWithLongKeys() {
+        server.expect(requestTo("http://book-service/api/books/availability"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("[1,2,3]"))
+                .andRespond(withSuccess("{\"1\":true,\"2\":false,\"3\":null}", MediaType.APPLICATION_JSON));
+
+        Map<Long, Boolean> availability = client.checkBooksAvailability(List.of(1L, 2L, 3L));
+
+        assertThat(availability).containsExactlyInAnyOrderEntriesOf(Map.of(1L, true, 2L, false, 3L, false));
+        server.verify();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bits.borrowservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceIdTest {
+
+    @Test
+    void hostIsStableAcrossStartsWhileTheValueIsNot() {
+        InstanceId first = new InstanceId("borrow-service-7d9f");
+        InstanceId restarted = new InstanceId("borrow-service-7d9f");
+
+        assertThat(restarted.getHost()).isEqualTo(first.getHost()).isEqualTo("borrow-service-7d9f");
+        assertThat(restarted.getValue()).startsWith("borrow-service-7d9f-").isNotEqualTo(first.getValue());
+    }
+
+    @Test
+    void fallsBackToTheLocalHostName() {
+        assertThat(new InstanceId("").getHost()).isNotBlank();
+    }
+}
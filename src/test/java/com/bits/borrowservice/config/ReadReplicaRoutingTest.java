@@ -0,0 +1,88 @@
+package com.bits.borrowservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource first;
+    private HikariDataSource second;
+    private ReadReplicaRouting routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = pool("primary");
+        first = pool("replica-1");
+        second = pool("replica-2");
+        routing = new ReadReplicaRouting(primary, List.of(first, second), Duration.ofSeconds(10), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void readsAreSpreadOverHealthyReplicas() throws SQLException {
+        markHealthy(0, true);
+        markHealthy(1, true);
+
+        for (int i = 0; i < 4; i++) {
+            routing.getReadOnlyDataSource().getConnection();
+        }
+
+        verify(first, times(2)).getConnection();
+        verify(second, times(2)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenForcedOrNoReplicaQualifies() throws SQLException {
+        routing.getReadOnlyDataSource().getConnection();
+
+        markHealthy(0, true);
+        PrimaryReadContext.onPrimary(() -> {
+            try {
+                return routing.getReadOnlyDataSource().getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        verify(primary, times(2)).getConnection();
+        verify(first, never()).getConnection();
+    }
+
+    @Test
+    void unreachableReplicaIsTakenOutOfRotation() throws SQLException {
+        markHealthy(0, true);
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        routing.checkReplicaLag();
+        routing.getReadOnlyDataSource().getConnection();
+
+        verify(primary).getConnection();
+    }
+
+    private void markHealthy(int replica, boolean healthy) {
+        List<?> replicas = (List<?>) ReflectionTestUtils.getField(routing, "replicas");
+        ReflectionTestUtils.setField(replicas.get(replica), "healthy", healthy);
+    }
+
+    private static HikariDataSource pool(String name) throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getPoolName()).thenReturn(name);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        return pool;
+    }
+}
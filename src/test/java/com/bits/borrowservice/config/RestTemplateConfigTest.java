@@ -0,0 +1,45 @@
+package com.bits.borrowservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestTemplateConfigTest {
+
+    @Test
+    void clientsArePooledPerServiceWithTheirOwnLimits() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("service.book.pool.max-total", "40")
+                .withProperty("service.book.pool.max-per-route", "20");
+        RestTemplateConfig config = new RestTemplateConfig(environment, meterRegistry);
+
+        RestTemplate book = config.bookServiceRestTemplate();
+        RestTemplate user = config.userServiceRestTemplate();
+
+        assertThat(book.getRequestFactory()).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+        assertThat(user.getRequestFactory()).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+        assertThat(maxPerRoute(meterRegistry, "bookService")).isEqualTo(20.0);
+        assertThat(maxPerRoute(meterRegistry, "userService")).isEqualTo(100.0);
+        config.closePooledClients();
+    }
+
+    @Test
+    void poolCanBeTurnedOffPerService() {
+        MockEnvironment environment = new MockEnvironment().withProperty("service.user.pool.enabled", "false");
+        RestTemplateConfig config = new RestTemplateConfig(environment, new SimpleMeterRegistry());
+
+        assertThat(config.userServiceRestTemplate().getRequestFactory())
+                .isInstanceOf(SimpleClientHttpRequestFactory.class);
+    }
+
+    private static double maxPerRoute(SimpleMeterRegistry meterRegistry, String pool) {
+        return meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", pool).gauge().value();
+    }
+}
@@ -0,0 +1,99 @@
+package com.bits.borrowservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskExecutorsTest {
+
+    @Test
+    void platformThreadPoolIsUsedByDefault() throws Exception {
+        AsyncTaskExecutor executor = TaskExecutors.create(new MockEnvironment(), "test-pool-", 2, 0);
+        try {
+            assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+            assertThat(((ThreadPoolTaskExecutor) executor).getMaxPoolSize()).isEqualTo(2);
+            assertThat(executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS))
+                    .startsWith("test-pool-");
+        } finally {
+            TaskExecutors.shutdown(executor);
+        }
+    }
+
+    @Test
+    void saturatedPoolRunsTasksOnTheSubmittingThread() throws Exception {
+        AsyncTaskExecutor executor = TaskExecutors.create(new MockEnvironment(), "test-pool-", 1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            String[] ranOn = new String[1];
+            executor.execute(() -> ranOn[0] = Thread.currentThread().getName());
+
+            assertThat(ranOn[0]).isEqualTo(Thread.currentThread().getName());
+        } finally {
+            release.countDown();
+            TaskExecutors.shutdown(executor);
+        }
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsAreUsedWhenEnabledAndCappedAtTheConcurrency() throws Exception {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        AsyncTaskExecutor executor = TaskExecutors.create(environment, "test-virtual-", 2, 0);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+            Future<?>[] futures = new Future<?>[6];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep();
+                    running.decrementAndGet();
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            // Thread.isVirtual() is not in the Java 17 API this module compiles against
+            assertThat(executor.submit(() -> Thread.currentThread().getClass().getSimpleName()).get(5, TimeUnit.SECONDS))
+                    .isEqualTo("VirtualThread");
+            assertThat(maxRunning).hasValueLessThanOrEqualTo(2);
+        } finally {
+            TaskExecutors.shutdown(executor);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.bits.borrowservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BorrowControllerTest {
+
+    @Test
+    void gzipIsUsedOnlyWhenTheClientAcceptsIt() {
+        assertThat(BorrowController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(BorrowController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(BorrowController.acceptsGzip("br, *;q=0.1")).isTrue();
+
+        assertThat(BorrowController.acceptsGzip(null)).isFalse();
+        assertThat(BorrowController.acceptsGzip("identity")).isFalse();
+        assertThat(BorrowController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(BorrowController.acceptsGzip("gzip; q=0.0, deflate")).isFalse();
+        assertThat(BorrowController.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(BorrowController.acceptsGzip("*;q=0")).isFalse();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventPayloadSerializerTest {
+
+    private final EventPayloadSerializer serializer = new EventPayloadSerializer();
+
+    @Test
+    void borrowEventsAreCompactVersionedRecordsWithEpochMillis() throws Exception {
+        LocalDateTime borrowed = LocalDateTime.of(2026, 3, 1, 12, 0);
+        Borrow borrow = new Borrow();
+        borrow.setId(5L);
+        borrow.setUserId(10L);
+        borrow.setBookId(100L);
+        borrow.setBorrowDate(borrowed);
+        borrow.setDueDate(borrowed.plusDays(14));
+
+        String payload = serializer.serialize(BorrowEvent.of(borrow));
+
+        assertThat(payload).doesNotContain("\n", " ");
+        JsonNode json = new ObjectMapper().readTree(payload);
+        assertThat(json.get("v").asInt()).isEqualTo(BorrowEvent.SCHEMA_VERSION);
+        assertThat(json.get("borrowId").asLong()).isEqualTo(5L);
+        assertThat(json.get("borrowedAt").asLong())
+                .isEqualTo(borrowed.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(json.size()).isEqualTo(6);
+    }
+
+    @Test
+    void cacheInvalidationsRoundTrip() throws Exception {
+        CacheInvalidationEvent event = CacheInvalidationEvent.of("replica-1", List.of(1L), List.of(2L));
+
+        CacheInvalidationEvent read = new ObjectMapper().readValue(serializer.serialize(event), CacheInvalidationEvent.class);
+
+        assertThat(read).isEqualTo(event);
+    }
+}
@@ -0,0 +1,175 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.entity.OutboxEvent;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxEventRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private JobPartitionLeaseRepository leaseRepository;
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxEventRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        leaseRepository = mock(JobPartitionLeaseRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxEventRelay(outboxEventRepository, leaseRepository, kafkaTemplate,
+                mock(PlatformTransactionManager.class), new InstanceId("test"), meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(relay, "lease", Duration.ofMinutes(2));
+        when(leaseRepository.claimNext(anyString(), anyInt(), anyString(), any(), any())).thenReturn(OptionalInt.of(0));
+    }
+
+    @Test
+    void acknowledgedEventsAreDeletedAndFailedKeysAreKeptInOrder() {
+        OutboxEvent first = event(1L, "borrow-events", "book-1");
+        OutboxEvent failing = event(2L, "borrow-events", "book-2");
+        OutboxEvent afterFailing = event(3L, "borrow-events", "book-2");
+        OutboxEvent other = event(4L, "borrow-events", "book-3");
+        when(outboxEventRepository.findOldest(any())).thenReturn(List.of(first, failing, afterFailing, other));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+        when(kafkaTemplate.send("borrow-events", "book-2", "payload-2"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 4L));
+        // Event 3 is not sent after event 2 of the same key failed, so it cannot overtake it
+        verify(kafkaTemplate, times(1)).send("borrow-events", "book-2", "payload-2");
+        assertThat(meterRegistry.get("borrow.outbox.events.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void laterEventsOfAKeyAreSentOnlyAfterTheEarlierOneIsAcknowledged() {
+        OutboxEvent first = event(1L, "borrow-events", "book-1");
+        OutboxEvent second = event(2L, "borrow-events", "book-1");
+        OutboxEvent other = event(3L, "borrow-events", "book-3");
+        second.setPayload("payload-1b");
+        when(outboxEventRepository.findOldest(any())).thenReturn(List.of(first, second, other));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+
+        relay.relay();
+
+        // The second book-1 event waits for the round that acknowledged the first one
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send("borrow-events", "book-1", "payload-1");
+        inOrder.verify(kafkaTemplate).send("borrow-events", "book-3", "payload-3");
+        inOrder.verify(kafkaTemplate).send("borrow-events", "book-1", "payload-1b");
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 3L, 2L));
+    }
+
+    @Test
+    void replicaWithoutTheLeaseDoesNotRelay() {
+        when(leaseRepository.claimNext(anyString(), anyInt(), anyString(), any(), any())).thenReturn(OptionalInt.empty());
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).findOldest(any());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void leaseIsKeptBetweenRunsAndRenewedBeforeItRunsOut() {
+        when(outboxEventRepository.findOldest(any())).thenReturn(List.of());
+
+        relay.relay();
+        relay.relay();
+        verify(leaseRepository, times(1)).claimNext(anyString(), anyInt(), anyString(), any(), any());
+        verify(leaseRepository, never()).renew(anyString(), anyInt(), anyString(), any());
+
+        ReflectionTestUtils.setField(relay, "lease", Duration.ZERO);
+        when(leaseRepository.renew(anyString(), eq(0), anyString(), any())).thenReturn(false);
+        relay.relay();
+
+        verify(leaseRepository).renew(anyString(), eq(0), anyString(), any());
+        verify(outboxEventRepository, times(2)).findOldest(any());
+    }
+
+    @Test
+    void gaugesReportTheLastRefreshWithoutQuerying() {
+        when(outboxEventRepository.countPending()).thenReturn(12L);
+        when(outboxEventRepository.oldestEventAgeSeconds()).thenReturn(3.5);
+
+        relay.refreshPending();
+
+        assertThat(meterRegistry.get("borrow.outbox.events.pending").gauge().value()).isEqualTo(12.0);
+        assertThat(meterRegistry.get("borrow.outbox.events.lag").gauge().value()).isEqualTo(3.5);
+        verify(outboxEventRepository, times(1)).countPending();
+    }
+
+    @Test
+    void overlappingRunsDoNotRelayConcurrently() throws Exception {
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reading = new AtomicInteger();
+        AtomicInteger maxReading = new AtomicInteger();
+        when(outboxEventRepository.findOldest(any())).thenAnswer(invocation -> {
+            maxReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+            firstReading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            reading.decrementAndGet();
+            return List.of();
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(relay::relay);
+        assertThat(firstReading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(relay::relay);
+        Thread.sleep(100);
+        assertThat(second).isNotDone();
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxReading).hasValue(1);
+        verify(outboxEventRepository, times(2)).findOldest(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, String>> acked() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    private static OutboxEvent event(Long id, String topic, String key) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setTopic(topic);
+        event.setEventKey(key);
+        event.setPayload("payload-" + key.substring(key.indexOf('-') + 1));
+        return event;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bits.borrowservice.event;
+
+import com.bits.borrowservice.client.UserStatusCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserStatusEventListenerTest {
+
+    private UserStatusCache userStatusCache;
+    private UserStatusEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = mock(UserStatusCache.class);
+        listener = new UserStatusEventListener(userStatusCache, new ObjectMapper());
+    }
+
+    @Test
+    void statusChangeDropsOnlyThatUser() {
+        listener.onUserStatusEvent("{\"userId\":42,\"status\":\"SUSPENDED\"}");
+
+        verify(userStatusCache).invalidate(42L);
+        verify(userStatusCache, never()).invalidateAll();
+    }
+
+    @Test
+    void eventsWithoutAUserOrUnreadableOnesClearTheCache() {
+        listener.onUserStatusEvent("{\"status\":\"SUSPENDED\"}");
+        listener.onUserStatusEvent("not json");
+
+        verify(userStatusCache, never()).invalidate(anyLong());
+        verify(userStatusCache, times(2)).invalidateAll();
+    }
+}
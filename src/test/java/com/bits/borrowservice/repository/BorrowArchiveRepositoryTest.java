@@ -0,0 +1,61 @@
+package com.bits.borrowservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BorrowArchiveRepositoryTest extends PostgresTestSupport {
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    private BorrowArchiveRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new BorrowArchiveRepository(jdbcTemplate);
+    }
+
+    @Test
+    void loansWithPendingFinesStayHot() {
+        insertBorrow(1, 10, 100, "RETURNED", "2026-01-01 00:00");
+        insertBorrow(2, 10, 101, "RETURNED", "2026-01-01 00:00");
+        markUpdated(1, "2026-01-10 00:00");
+        markUpdated(2, "2026-01-10 00:00");
+        insertFine(20, 2, "PENDING");
+
+        assertThat(repository.lockArchivable(CUTOFF, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void settledFinesStayListedAfterTheirLoanIsArchived() {
+        insertBorrow(1, 10, 100, "RETURNED", "2026-01-01 00:00");
+        markUpdated(1, "2026-01-10 00:00");
+        insertFine(20, 1, "PAID");
+
+        repository.ensurePartitions(CUTOFF);
+        assertThat(repository.move(List.of(1L))).isEqualTo(1);
+
+        assertThat(count("SELECT COUNT(*) FROM fines")).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT id, borrow_id, status FROM fine_history WHERE user_id = :userId",
+                Map.of("userId", 10L)))
+                .containsExactly(Map.of("id", 20L, "borrow_id", 1L, "status", "PAID"));
+    }
+
+    private void markUpdated(long borrowId, String updatedAt) {
+        jdbcTemplate.getJdbcTemplate().update("UPDATE borrows SET updated_at = CAST(? AS timestamp) WHERE id = ?",
+                updatedAt, borrowId);
+    }
+
+    private void insertFine(long id, long borrowId, String status) {
+        jdbcTemplate.getJdbcTemplate().update("INSERT INTO fines (id, borrow_id, amount, status) VALUES (?, ?, 5.00, ?)",
+                id, borrowId, status);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.Borrow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BorrowExportRepositoryTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private BorrowExportRepository repository;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository = new BorrowExportRepository(dataSource(), 2);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource()));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    void exportCoversHotAndArchivedLoansAcrossFetchBlocks() {
+        insertBorrow(1, 10, 100, "RETURNED", "2025-06-01 00:00");
+        markUpdated(1, "2025-06-01 00:00");
+        insertBorrow(2, 10, 101, "BORROWED", "2026-03-10 00:00");
+        insertBorrow(3, 11, 102, "BORROWED", "2026-03-12 00:00");
+        insertBorrow(4, 12, 103, "OVERDUE", "2026-02-10 00:00");
+        insertBorrow(5, 12, 104, "RETURNED", "2026-02-20 00:00");
+        BorrowArchiveRepository archiveRepository = new BorrowArchiveRepository(jdbcTemplate);
+        archiveRepository.ensurePartitions(NOW);
+        archiveRepository.move(List.of(1L));
+
+        assertThat(export(null, null, null)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void boundsAndStatusAreFiltersOnlyWhenGiven() {
+        insertBorrow(1, 10, 100, "RETURNED", "2026-01-15 00:00");
+        insertBorrow(2, 10, 101, "BORROWED", "2026-03-10 00:00");
+        insertBorrow(3, 11, 102, "RETURNED", "2026-03-12 00:00");
+
+        // insertBorrow sets borrow_date 14 days before the due date
+        assertThat(export(LocalDateTime.of(2026, 2, 1, 0, 0), null, null)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(export(null, LocalDateTime.of(2026, 2, 1, 0, 0), null)).containsExactly(1L);
+        assertThat(export(null, null, Borrow.BorrowStatus.RETURNED)).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    private List<Long> export(LocalDateTime from, LocalDateTime to, Borrow.BorrowStatus status) {
+        List<Long> ids = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(tx -> repository.forEach(from, to, status, borrow -> ids.add(borrow.getId())));
+        return ids;
+    }
+
+    private void markUpdated(long borrowId, String updatedAt) {
+        jdbcTemplate.getJdbcTemplate().update("UPDATE borrows SET updated_at = CAST(? AS timestamp) WHERE id = ?",
+                updatedAt, borrowId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.Borrow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BorrowJdbcRepositoryTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private BorrowJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new BorrowJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void markOverdueChunkOnlyTouchesItsPartitionInKeysetOrder() {
+        insertBorrow(1, 10, 100, "BORROWED", "2026-02-01 00:00");
+        insertBorrow(17, 10, 101, "BORROWED", "2026-01-01 00:00");
+        insertBorrow(33, 11, 102, "BORROWED", "2026-02-15 00:00");
+        insertBorrow(49, 11, 103, "BORROWED", "2026-04-01 00:00");
+        insertBorrow(65, 12, 104, "RETURNED", "2026-01-15 00:00");
+        insertBorrow(2, 12, 105, "BORROWED", "2026-01-01 00:00");
+
+        List<Borrow> first = repository.markOverdueChunk(1, 16, NOW, START, 0, 2);
+        assertThat(first).extracting(Borrow::getId).containsExactly(17L, 1L);
+        assertThat(first).allMatch(borrow -> borrow.getStatus() == Borrow.BorrowStatus.OVERDUE);
+
+        Borrow last = first.get(1);
+        List<Borrow> second = repository.markOverdueChunk(1, 16, NOW, last.getDueDate(), last.getId(), 2);
+        assertThat(second).extracting(Borrow::getId).containsExactly(33L);
+
+        assertThat(statusOf(49)).isEqualTo("BORROWED");
+        assertThat(statusOf(65)).isEqualTo("RETURNED");
+        assertThat(statusOf(2)).isEqualTo("BORROWED");
+    }
+
+    @Test
+    void partitionPredicateIsServedByThePartitionIndex() {
+        String plan = explain("""
+                SELECT id FROM borrows
+                WHERE status = 'BORROWED'
+                  AND mod(id, 16) = 3
+                  AND due_date < '2026-03-01'
+                  AND (due_date, id) > ('1970-01-01', 0)
+                ORDER BY due_date, id
+                LIMIT 1000
+                """);
+
+        assertThat(plan).contains("idx_borrows_open_due_partition");
+    }
+
+    @Test
+    void extensionMovesTheDueDateAndIsRecordedUntilTheLimit() {
+        insertBorrow(1, 10, 100, "BORROWED", "2026-03-01 00:00");
+
+        Optional<Borrow> first = repository.extend(1, 7, 2);
+        Optional<Borrow> second = repository.extend(1, 7, 2);
+        Optional<Borrow> third = repository.extend(1, 7, 2);
+
+        assertThat(first).get().extracting(Borrow::getDueDate).isEqualTo(LocalDateTime.of(2026, 3, 8, 0, 0));
+        assertThat(second).get().extracting(Borrow::getExtensionCount).isEqualTo(2);
+        assertThat(third).isEmpty();
+        assertThat(jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COUNT(*) FROM borrow_extensions WHERE borrow_id = 1", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void onlyBorrowedLoansAreExtended() {
+        insertBorrow(1, 10, 100, "OVERDUE", "2026-03-01 00:00");
+
+        assertThat(repository.extend(1, 7, 2)).isEmpty();
+        assertThat(repository.extend(2, 7, 2)).isEmpty();
+    }
+
+    private String statusOf(long id) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT status FROM borrows WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.Borrow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares listing 10k overdue loans as entities mapped with {@link BorrowResponse#fromEntity} (how the list
+ * endpoints worked before) against the JPQL constructor projection they use now. Each pass reads every page
+ * in a read-only session, as {@code @Transactional(readOnly = true)} sets it up, and records wall time and
+ * bytes allocated by the test thread.
+ * <p>
+ * Not part of the regular build. Run with
+ * {@code mvn test -Dtest=BorrowProjectionBenchmarkTest -Dbenchmark.projections=true}; results are printed and
+ * written to {@code target/benchmark/projections.csv}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.projections", matches = "true")
+class BorrowProjectionBenchmarkTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final int ROWS = 10_000;
+    private static final int PAGE_SIZE = 1_000;
+    private static final int WARMUP_PASSES = 10;
+    private static final int MEASURED_PASSES = 30;
+
+    /**
+     * The entity query the overdue listing ran before it was projected.
+     */
+    interface OverdueEntities extends Repository<Borrow, Long> {
+        @Query(value = "SELECT b FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now",
+               countQuery = "SELECT COUNT(b) FROM Borrow b WHERE b.status = 'BORROWED' AND b.dueDate < :now")
+        Page<Borrow> findOverdue(@Param("now") LocalDateTime now, Pageable pageable);
+    }
+
+    private record Result(String variant, double millisPerPass, double bytesPerRow) {
+    }
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private BorrowRepository borrowRepository;
+    private OverdueEntities overdueEntities;
+
+    @BeforeEach
+    void setUp() {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource());
+        factoryBean.setPackagesToScan("com.bits.borrowservice.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        borrowRepository = repositoryFactory.getRepository(BorrowRepository.class);
+        overdueEntities = repositoryFactory.getRepository(OverdueEntities.class);
+
+        jdbcTemplate.getJdbcTemplate().update("""
+                INSERT INTO borrows (id, user_id, book_id, borrow_date, due_date, status)
+                SELECT g, g % 1000, g, CAST(? AS timestamp) - interval '30 days', CAST(? AS timestamp) - interval '1 day',
+                       'BORROWED'
+                FROM generate_series(1, ?) g
+                """, NOW, NOW, ROWS);
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE borrows");
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void projectedPagesAllocateLessThanEntityPages() throws IOException {
+        Function<Pageable, Page<BorrowResponse>> entityPage =
+                pageable -> overdueEntities.findOverdue(NOW, pageable).map(BorrowResponse::fromEntity);
+        Function<Pageable, Page<BorrowResponse>> projectedPage =
+                pageable -> borrowRepository.findOverdueResponses(NOW, pageable);
+
+        assertThat(readAllPages(projectedPage)).isEqualTo(readAllPages(entityPage));
+
+        Result entities = measure("entity", entityPage);
+        Result projections = measure("projection", projectedPage);
+        report(entities, projections);
+
+        assertThat(projections.bytesPerRow()).isLessThan(entities.bytesPerRow());
+    }
+
+    private Result measure(String variant, Function<Pageable, Page<BorrowResponse>> page) {
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            readAllPages(page);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            readAllPages(page);
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Result(variant, elapsed / 1e6 / MEASURED_PASSES, (double) allocated / MEASURED_PASSES / ROWS);
+    }
+
+    private List<BorrowResponse> readAllPages(Function<Pageable, Page<BorrowResponse>> page) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        entityManager.getTransaction().begin();
+        try {
+            List<BorrowResponse> rows = new ArrayList<>(ROWS);
+            Page<BorrowResponse> current = page.apply(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+            rows.addAll(current.getContent());
+            while (current.hasNext()) {
+                current = page.apply(current.nextPageable());
+                rows.addAll(current.getContent());
+            }
+            return rows;
+        } finally {
+            entityManager.getTransaction().rollback();
+            entityManager.clear();
+        }
+    }
+
+    private static void report(Result... results) throws IOException {
+        StringBuilder csv = new StringBuilder("variant,rows,page_size,ms_per_pass,bytes_per_row\n");
+        for (Result result : results) {
+            csv.append(String.format("%s,%d,%d,%.2f,%.0f%n",
+                    result.variant(), ROWS, PAGE_SIZE, result.millisPerPass(), result.bytesPerRow()));
+        }
+        Path out = Path.of("target", "benchmark", "projections.csv");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, csv);
+        System.out.print(csv);
+    }
+}
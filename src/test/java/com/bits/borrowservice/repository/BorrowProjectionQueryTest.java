@@ -0,0 +1,88 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JPQL constructor projections of the Spring Data repositories through Hibernate.
+ */
+class BorrowProjectionQueryTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private BorrowRepository borrowRepository;
+    private BorrowHistoryRepository historyRepository;
+
+    @BeforeEach
+    void setUp() {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource());
+        factoryBean.setPackagesToScan("com.bits.borrowservice.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        borrowRepository = repositoryFactory.getRepository(BorrowRepository.class);
+        historyRepository = repositoryFactory.getRepository(BorrowHistoryRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void historyListsHotAndArchivedLoansAsResponses() {
+        insertBorrow(1, 10, 100, "RETURNED", "2025-06-01 00:00");
+        markUpdated(1, "2025-06-01 00:00");
+        insertBorrow(2, 10, 101, "BORROWED", "2026-03-10 00:00");
+        insertBorrow(3, 11, 102, "BORROWED", "2026-03-10 00:00");
+        BorrowArchiveRepository archiveRepository = new BorrowArchiveRepository(jdbcTemplate);
+        archiveRepository.ensurePartitions(NOW);
+        archiveRepository.move(List.of(1L));
+
+        Page<BorrowResponse> page = historyRepository.findResponsesByUserId(10L,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("borrowDate"))));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(BorrowResponse::getId).containsExactly(2L, 1L);
+        assertThat(historyRepository.findResponseById(1L)).get()
+                .extracting(BorrowResponse::getBookId).isEqualTo(100L);
+        assertThat(historyRepository.findExistingIds(List.of(1L, 2L, 99L))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void overdueListingIsProjectedFromTheHotTable() {
+        insertBorrow(1, 10, 100, "BORROWED", "2026-02-01 00:00");
+        insertBorrow(2, 10, 101, "BORROWED", "2026-04-01 00:00");
+        insertBorrow(3, 11, 102, "RETURNED", "2026-02-01 00:00");
+
+        Page<BorrowResponse> overdue = borrowRepository.findOverdueResponses(NOW, PageRequest.of(0, 10));
+
+        assertThat(overdue.getContent()).extracting(BorrowResponse::getId).containsExactly(1L);
+        assertThat(overdue.getContent().get(0).getDueDate()).isEqualTo(LocalDateTime.of(2026, 2, 1, 0, 0));
+    }
+
+    private void markUpdated(long borrowId, String updatedAt) {
+        jdbcTemplate.getJdbcTemplate().update("UPDATE borrows SET updated_at = CAST(? AS timestamp) WHERE id = ?",
+                updatedAt, borrowId);
+    }
+}
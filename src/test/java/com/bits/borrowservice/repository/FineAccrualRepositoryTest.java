@@ -0,0 +1,79 @@
+package com.bits.borrowservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FineAccrualRepositoryTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final BigDecimal PER_DAY = new BigDecimal("0.50");
+
+    private FineAccrualRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FineAccrualRepository(jdbcTemplate);
+    }
+
+    @Test
+    void chunkAccruesItsPartitionAndUpdatesTheBalance() {
+        insertBorrow(1, 10, 100, "OVERDUE", "2026-02-19 12:00");
+        insertBorrow(17, 10, 101, "BORROWED", "2026-02-27 12:00");
+        insertBorrow(2, 11, 102, "OVERDUE", "2026-02-01 12:00");
+
+        FineAccrualRepository.ChunkResult result = repository.accrueChunk(1, 16, NOW, PER_DAY, 0, 100);
+
+        assertThat(result).isEqualTo(new FineAccrualRepository.ChunkResult(17, 2, 2));
+        assertThat(pendingFine(1)).isEqualByComparingTo("5.00");
+        assertThat(pendingFine(17)).isEqualByComparingTo("1.00");
+        assertThat(outstanding(10)).isEqualByComparingTo("6.00");
+        assertThat(count("SELECT COUNT(*) FROM fines WHERE borrow_id = 2")).isZero();
+
+        assertThat(repository.accrueChunk(1, 16, NOW, PER_DAY, 0, 100).accrued()).isZero();
+        assertThat(outstanding(10)).isEqualByComparingTo("6.00");
+    }
+
+    @Test
+    void pendingFinesAndBalancesAreNeverLowered() {
+        insertBorrow(1, 10, 100, "OVERDUE", "2026-02-19 12:00");
+        repository.accrueChunk(1, 16, NOW, PER_DAY, 0, 100);
+
+        repository.accrueChunk(1, 16, NOW, new BigDecimal("0.10"), 0, 100);
+
+        assertThat(pendingFine(1)).isEqualByComparingTo("5.00");
+        assertThat(outstanding(10)).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void partitionPredicateIsServedByThePartitionIndex() {
+        String plan = explain("""
+                SELECT id FROM borrows
+                WHERE status IN ('BORROWED', 'OVERDUE')
+                  AND mod(id, 16) = 3
+                  AND id > 0
+                  AND due_date < '2026-03-01'
+                ORDER BY id
+                LIMIT 5000
+                """);
+
+        assertThat(plan).contains("idx_borrows_open_partition");
+    }
+
+    private BigDecimal pendingFine(long borrowId) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT amount FROM fines WHERE borrow_id = ? AND status = 'PENDING'", BigDecimal.class, borrowId);
+    }
+
+    private BigDecimal outstanding(long userId) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT outstanding FROM user_fine_balances WHERE user_id = ?", BigDecimal.class, userId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(sql, Long.class);
+    }
+}
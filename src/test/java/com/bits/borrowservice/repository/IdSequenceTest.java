@@ -0,0 +1,54 @@
+package com.bits.borrowservice.repository;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.entity.BorrowExtension;
+import com.bits.borrowservice.entity.Fine;
+import com.bits.borrowservice.entity.Return;
+import jakarta.persistence.SequenceGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdSequenceTest extends PostgresTestSupport {
+
+    @Test
+    void sequencesStepByTheAllocationSizeOfTheirEntities() {
+        for (Class<?> entity : List.of(Borrow.class, Return.class, Fine.class, BorrowExtension.class)) {
+            SequenceGenerator generator = idGenerator(entity);
+            Long incrementBy = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class, generator.sequenceName());
+
+            assertThat(incrementBy).as(generator.sequenceName()).isEqualTo(generator.allocationSize());
+        }
+    }
+
+    @Test
+    void columnDefaultsTakeIdsOutsideTheBlocksHibernateHandsOut() {
+        Long block = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT nextval('borrows_id_seq')", Long.class);
+        insertDefaultBorrow();
+        Long defaulted = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT max(id) FROM borrows", Long.class);
+
+        // Hibernate's pooled-lo block for "block" is [block, block + 49]
+        assertThat(defaulted).isGreaterThanOrEqualTo(block + 50);
+    }
+
+    private void insertDefaultBorrow() {
+        jdbcTemplate.getJdbcTemplate().update("""
+                INSERT INTO borrows (user_id, book_id, borrow_date, due_date, status)
+                VALUES (10, 100, now(), now() + interval '14 days', 'BORROWED')
+                """);
+    }
+
+    private static SequenceGenerator idGenerator(Class<?> entity) {
+        for (Field field : entity.getDeclaredFields()) {
+            SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+            if (generator != null) {
+                return generator;
+            }
+        }
+        throw new IllegalStateException(entity + " has no sequence generator");
+    }
+}
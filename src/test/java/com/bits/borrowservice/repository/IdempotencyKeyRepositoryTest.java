@@ -0,0 +1,75 @@
+package com.bits.borrowservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyKeyRepositoryTest extends PostgresTestSupport {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private IdempotencyKeyRepository repository;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository = new IdempotencyKeyRepository(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource()));
+    }
+
+    @Test
+    void liveKeyIsNotClaimedTwiceButAnExpiredOneIsTakenOver() {
+        assertThat(repository.claim("alice:k1", "a", NOW, NOW.plusHours(24), Duration.ofSeconds(1))).isTrue();
+        assertThat(repository.claim("alice:k1", "b", NOW, NOW.plusHours(24), Duration.ofSeconds(1))).isFalse();
+        assertThat(repository.find("alice:k1")).get().extracting(IdempotencyKeyRepository.StoredKey::fingerprint)
+                .isEqualTo("a");
+
+        assertThat(repository.claim("alice:k1", "b", NOW.plusHours(25), NOW.plusHours(49), Duration.ofSeconds(1)))
+                .isTrue();
+    }
+
+    @Test
+    void claimGivesUpOnAnUncommittedClaimAfterTheLockTimeout() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            repository.claim("alice:k1", "a", NOW, NOW.plusHours(24), Duration.ofSeconds(1));
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                    repository.claim("alice:k1", "a", NOW, NOW.plusHours(24), Duration.ofMillis(200))))
+                    .isInstanceOf(PessimisticLockingFailureException.class);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void lockTimeoutIsRestoredForTheRestOfTheTransaction() {
+        String after = transactionTemplate.execute(status -> {
+            repository.claim("alice:k1", "a", NOW, NOW.plusHours(24), Duration.ofMillis(200));
+            return jdbcTemplate.getJdbcTemplate().queryForObject("SHOW lock_timeout", String.class);
+        });
+
+        assertThat(after).isEqualTo("0");
+    }
+}
@@ -0,0 +1,41 @@
+package com.bits.borrowservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobPartitionLeaseRepositoryTest extends PostgresTestSupport {
+    private static final String JOB = "test-job";
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(10);
+
+    private JobPartitionLeaseRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JobPartitionLeaseRepository(jdbcTemplate);
+        repository.ensurePartitions(JOB, 2);
+    }
+
+    @Test
+    void partitionReleasedWithARetryDelayIsNotClaimedAgainBeforeIt() {
+        assertThat(repository.claimNext(JOB, 2, "a", LEASE, MIN_INTERVAL)).isEqualTo(OptionalInt.of(0));
+        repository.release(JOB, 0, "a", Duration.ofMinutes(5));
+
+        assertThat(repository.claimNext(JOB, 2, "a", LEASE, MIN_INTERVAL)).isEqualTo(OptionalInt.of(1));
+        repository.complete(JOB, 1, "a");
+        assertThat(repository.claimNext(JOB, 2, "b", LEASE, MIN_INTERVAL)).isEmpty();
+    }
+
+    @Test
+    void partitionReleasedWithoutADelayCanBeClaimedRightAway() {
+        assertThat(repository.claimNext(JOB, 2, "a", LEASE, MIN_INTERVAL)).isEqualTo(OptionalInt.of(0));
+        repository.release(JOB, 0, "a");
+
+        assertThat(repository.claimNext(JOB, 2, "b", LEASE, MIN_INTERVAL)).isEqualTo(OptionalInt.of(0));
+    }
+}
@@ -0,0 +1,87 @@
+package com.bits.borrowservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Runs repository SQL against a real PostgreSQL with all Flyway migrations applied. The container is started
+ * once per test run; every test starts from empty tables. Skipped when no Docker daemon is available.
+ */
+@EnabledIf("dockerAvailable")
+abstract class PostgresTestSupport {
+    private static PostgreSQLContainer<?> postgres;
+    private static DataSource dataSource;
+
+    protected NamedParameterJdbcTemplate jdbcTemplate;
+
+    static boolean dockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeEach
+    void resetDatabase() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource());
+        jdbcTemplate.getJdbcTemplate().execute("""
+                DO $$
+                DECLARE t text;
+                BEGIN
+                    FOR t IN SELECT tablename FROM pg_tables
+                             WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history' LOOP
+                        EXECUTE format('TRUNCATE TABLE %I CASCADE', t);
+                    END LOOP;
+                END $$
+                """);
+    }
+
+    protected static synchronized DataSource dataSource() {
+        if (dataSource == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            PGSimpleDataSource pg = new PGSimpleDataSource();
+            pg.setUrl(postgres.getJdbcUrl());
+            pg.setUser(postgres.getUsername());
+            pg.setPassword(postgres.getPassword());
+            Flyway.configure().dataSource(pg).load().migrate();
+            dataSource = pg;
+        }
+        return dataSource;
+    }
+
+    protected long insertBorrow(long id, long userId, long bookId, String status, String dueDate) {
+        jdbcTemplate.getJdbcTemplate().update("""
+                INSERT INTO borrows (id, user_id, book_id, borrow_date, due_date, status)
+                VALUES (?, ?, ?, CAST(? AS timestamp) - interval '14 days', CAST(? AS timestamp), ?)
+                """, id, userId, bookId, dueDate, dueDate, status);
+        return id;
+    }
+
+    /**
+     * Plan of {@code sql} with sequential scans disabled, since the test tables are too small for the planner
+     * to prefer an index on its own.
+     */
+    protected String explain(String sql) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<String>) connection -> {
+            StringBuilder plan = new StringBuilder();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("RESET enable_seqscan");
+            }
+            return plan.toString();
+        });
+    }
+}
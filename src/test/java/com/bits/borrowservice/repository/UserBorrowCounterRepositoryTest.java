@@ -0,0 +1,58 @@
+package com.bits.borrowservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserBorrowCounterRepositoryTest extends PostgresTestSupport {
+
+    private UserBorrowCounterRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new UserBorrowCounterRepository(jdbcTemplate);
+    }
+
+    @Test
+    void incrementStopsAtTheLimit() {
+        assertThat(repository.tryIncrement(10, 2)).isTrue();
+        assertThat(repository.tryIncrement(10, 2)).isTrue();
+        assertThat(repository.tryIncrement(10, 2)).isFalse();
+        assertThat(activeCount(10)).isEqualTo(2);
+
+        repository.decrement(10);
+        assertThat(repository.tryIncrement(10, 2)).isTrue();
+    }
+
+    @Test
+    void reserveGrantsOnlyWhatFitsAndDecrementsNeverGoNegative() {
+        repository.tryIncrement(10, 5);
+
+        assertThat(repository.reserve(10, 6, 5)).isEqualTo(4);
+        assertThat(repository.reserve(11, 2, 5)).isEqualTo(2);
+
+        repository.decrementAll(Map.of(10L, 7, 11L, 1));
+        assertThat(activeCount(10)).isZero();
+        assertThat(activeCount(11)).isEqualTo(1);
+    }
+
+    @Test
+    void recountRepairsADriftedCounter() {
+        insertBorrow(1, 10, 100, "BORROWED", "2026-04-01 00:00");
+        insertBorrow(2, 10, 101, "RETURNED", "2026-04-01 00:00");
+        repository.tryIncrement(10, 5);
+        repository.tryIncrement(10, 5);
+
+        assertThat(repository.findDrifted()).containsExactly(10L);
+        assertThat(repository.recount(10)).isEqualTo(new UserBorrowCounterRepository.Recount(2, 1));
+        assertThat(repository.findDrifted()).isEmpty();
+    }
+
+    private int activeCount(long userId) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT active_count FROM user_borrow_counters WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.bits.borrowservice.security;
+
+import com.bits.borrowservice.client.UserServiceClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+    private static final String SECRET = "a-test-secret-that-is-at-least-thirty-two-bytes-long";
+
+    private UserServiceClient userServiceClient;
+    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userServiceClient = mock(UserServiceClient.class);
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(tokenProvider, "clockSkewSeconds", 0L);
+        tokenProvider.init();
+        verifiedTokenCache = new VerifiedTokenCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(userServiceClient, tokenProvider, verifiedTokenCache, new CustomUserDetailsService(),
+                new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(filter, "validationMode", "local");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenIsVerifiedLocallyAndCached() throws Exception {
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user(), null));
+
+        MockHttpServletResponse response = filter(token);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(verifiedTokenCache.isVerified(token)).isTrue();
+        verify(userServiceClient, never()).validateToken(anyString());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedWithoutARemoteCall() throws Exception {
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user(), null));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        MockHttpServletResponse response = filter(tampered);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(verifiedTokenCache.isVerified(tampered)).isFalse();
+        verify(userServiceClient, never()).validateToken(anyString());
+    }
+
+    @Test
+    void revocationCheckOnlyAsksAboutUncachedTokens() throws Exception {
+        ReflectionTestUtils.setField(filter, "revocationCheckEnabled", true);
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user(), null));
+        when(userServiceClient.validateToken(token)).thenReturn(true);
+
+        filter(token);
+        filter(token);
+
+        verify(userServiceClient).validateToken(token);
+    }
+
+    @Test
+    void requestIsAuthenticatedAsTheTokenSubject() throws Exception {
+        String alice = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user("alice"), null));
+        String bob = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user("bob"), null));
+
+        assertThat(principalOf(alice)).isEqualTo("alice");
+        assertThat(principalOf(bob)).isEqualTo("bob");
+        // Second time from the verified-token cache
+        assertThat(principalOf(alice)).isEqualTo("alice");
+    }
+
+    @Test
+    void remotelyValidatedTokenIsAuthenticatedAsItsSubject() throws Exception {
+        ReflectionTestUtils.setField(filter, "validationMode", "remote");
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user("carol"), null));
+        when(userServiceClient.validateToken(token)).thenReturn(true);
+
+        assertThat(principalOf(token)).isEqualTo("carol");
+    }
+
+    @Test
+    void tokenWithoutASubjectIsRejected() throws Exception {
+        String token = Jwts.builder()
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(filter(token).getStatus()).isEqualTo(401);
+    }
+
+    private String principalOf(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/borrows/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        String[] name = new String[1];
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> name[0] = SecurityContextHolder.getContext().getAuthentication().getName());
+        SecurityContextHolder.clearContext();
+        return name[0];
+    }
+
+    private MockHttpServletResponse filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/borrows/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static UserDetails user() {
+        return user("user-1");
+    }
+
+    private static UserDetails user(String username) {
+        return new User(username, "", List.of());
+    }
+}
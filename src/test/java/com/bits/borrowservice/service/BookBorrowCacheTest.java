@@ -0,0 +1,75 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.entity.Borrow;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookBorrowCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookBorrowCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BookBorrowCache(Duration.ofMinutes(10), 100, 20, meterRegistry);
+    }
+
+    @Test
+    void hitsAreServedFromTheSnapshotAndTimedByItsAge() {
+        AtomicInteger loads = new AtomicInteger();
+        BookBorrowCache.Snapshot stale = new BookBorrowCache.Snapshot(List.of(), 0, null,
+                System.currentTimeMillis() - 5_000);
+
+        cache.get(7L, id -> {
+            loads.incrementAndGet();
+            return stale;
+        });
+        cache.get(7L, id -> {
+            loads.incrementAndGet();
+            return stale;
+        });
+
+        assertThat(loads).hasValue(1);
+        Timer age = meterRegistry.get("borrow.book-cache.age").timer();
+        assertThat(age.count()).isEqualTo(2);
+        assertThat(age.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5_000);
+    }
+
+    @Test
+    void updatesAppliedInPlaceKeepTheLoadTime() {
+        long loadedAt = System.currentTimeMillis() - 60_000;
+        cache.get(7L, id -> new BookBorrowCache.Snapshot(List.of(), 0, null, loadedAt));
+
+        cache.apply(List.of(borrow(1L, 7L)));
+
+        BookBorrowCache.Snapshot updated = cache.get(7L, id -> {
+            throw new AssertionError("should be cached");
+        });
+        assertThat(updated.total()).isEqualTo(1);
+        assertThat(updated.activeLoan().getId()).isEqualTo(1L);
+        assertThat(updated.loadedAt()).isEqualTo(loadedAt);
+    }
+
+    private static Borrow borrow(Long id, Long bookId) {
+        LocalDateTime now = LocalDateTime.now();
+        Borrow borrow = new Borrow();
+        borrow.setId(id);
+        borrow.setUserId(10L);
+        borrow.setBookId(bookId);
+        borrow.setBorrowDate(now);
+        borrow.setDueDate(now.plusDays(14));
+        borrow.setStatus(Borrow.BorrowStatus.BORROWED);
+        return borrow;
+    }
+}
@@ -0,0 +1,145 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.client.BookServiceClient;
+import com.bits.borrowservice.entity.BookStatusUpdate;
+import com.bits.borrowservice.repository.BookStatusUpdateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookStatusOutboxDispatcherTest {
+
+    private BookStatusUpdateRepository repository;
+    private BookServiceClient bookServiceClient;
+    private SimpleMeterRegistry meterRegistry;
+    private BookStatusOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BookStatusUpdateRepository.class);
+        bookServiceClient = mock(BookServiceClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new BookStatusOutboxDispatcher(repository, bookServiceClient,
+                mock(PlatformTransactionManager.class), meterRegistry, new MockEnvironment(), 2);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "claimTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(5));
+        when(repository.tryAdvisoryLock(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void pendingGaugeReadsTheLastRefreshWithoutQuerying() {
+        when(repository.countPending()).thenReturn(7L);
+
+        assertThat(meterRegistry.get("borrow.outbox.book-status.pending").gauge().value()).isZero();
+        dispatcher.refreshPending();
+        assertThat(meterRegistry.get("borrow.outbox.book-status.pending").gauge().value()).isEqualTo(7.0);
+        assertThat(meterRegistry.get("borrow.outbox.book-status.pending").gauge().value()).isEqualTo(7.0);
+
+        verify(repository, times(1)).countPending();
+    }
+
+    @Test
+    void deliveredUpdatesAreDeletedWithOlderOnesForTheSameBook() {
+        when(repository.findDeliverable(any(), anyInt())).thenReturn(List.of(update(5L, 42L, "AVAILABLE", 0)));
+
+        dispatcher.dispatch();
+
+        verify(bookServiceClient).updateBookStatus(42L, "AVAILABLE");
+        verify(repository).deleteDeliveredUpTo(42L, 5L);
+        verify(repository, never()).scheduleRetry(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void failedDeliveriesAreRetriedWithExponentialBackoff() {
+        when(repository.findDeliverable(any(), anyInt())).thenReturn(List.of(update(5L, 42L, "BORROWED", 3)));
+        doThrow(new IllegalStateException("book service down")).when(bookServiceClient).updateBookStatus(42L, "BORROWED");
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        verify(repository, never()).deleteDeliveredUpTo(anyLong(), anyLong());
+        verify(repository).scheduleRetry(eq(5L),
+                argThat(next -> !next.isBefore(before.plusSeconds(8))),
+                eq("book service down"));
+    }
+
+    @Test
+    void updatesRejectedWithAClientErrorAreDroppedInsteadOfRetried() {
+        when(repository.findDeliverable(any(), anyInt())).thenReturn(List.of(update(5L, 42L, "BORROWED", 0)));
+        doThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null))
+                .when(bookServiceClient).updateBookStatus(42L, "BORROWED");
+
+        dispatcher.dispatch();
+
+        verify(repository).deleteDeliveredUpTo(42L, 5L);
+        verify(repository, never()).scheduleRetry(anyLong(), any(), anyString());
+        assertThat(meterRegistry.get("borrow.outbox.book-status.dropped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("borrow.outbox.book-status.delivered").counter().count()).isZero();
+    }
+
+    @Test
+    void timeoutsAndRateLimitingAreRetried() {
+        when(repository.findDeliverable(any(), anyInt())).thenReturn(
+                List.of(update(5L, 42L, "BORROWED", 0), update(6L, 43L, "BORROWED", 0)));
+        doThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))
+                .when(bookServiceClient).updateBookStatus(42L, "BORROWED");
+        doThrow(HttpClientErrorException.create(HttpStatus.REQUEST_TIMEOUT, "Request Timeout", null, null, null))
+                .when(bookServiceClient).updateBookStatus(43L, "BORROWED");
+
+        dispatcher.dispatch();
+
+        verify(repository).scheduleRetry(eq(5L), any(), anyString());
+        verify(repository).scheduleRetry(eq(6L), any(), anyString());
+        verify(repository, never()).deleteDeliveredUpTo(anyLong(), anyLong());
+        assertThat(meterRegistry.get("borrow.outbox.book-status.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    void nothingIsClaimedWhileAnotherReplicaHoldsTheClaimLock() {
+        when(repository.tryAdvisoryLock(anyLong())).thenReturn(false);
+
+        dispatcher.dispatch();
+
+        verify(repository, never()).findDeliverable(any(), anyInt());
+    }
+
+    private static BookStatusUpdate update(Long id, Long bookId, String status, int attempts) {
+        BookStatusUpdate update = new BookStatusUpdate();
+        update.setId(id);
+        update.setBookId(bookId);
+        update.setStatus(status);
+        update.setAttempts(attempts);
+        return update;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.repository.BorrowArchiveRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BorrowArchiverTest {
+
+    private BorrowArchiveRepository archiveRepository;
+    private JobPartitionLeaseRepository leaseRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private BorrowArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiveRepository = mock(BorrowArchiveRepository.class);
+        leaseRepository = mock(JobPartitionLeaseRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        archiver = new BorrowArchiver(archiveRepository, leaseRepository, mock(PlatformTransactionManager.class),
+                new InstanceId("test"), meterRegistry);
+        ReflectionTestUtils.setField(archiver, "retention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        ReflectionTestUtils.setField(archiver, "lease", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(archiver, "minInterval", Duration.ofHours(1));
+        when(leaseRepository.claimNext(anyString(), eq(1), anyString(), any(), any())).thenReturn(OptionalInt.of(0));
+        when(leaseRepository.renew(anyString(), eq(0), anyString(), any())).thenReturn(true);
+    }
+
+    @Test
+    void archivesInBatchesUntilAShortOne() {
+        when(archiveRepository.lockArchivable(any(), eq(2))).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(archiveRepository.move(List.of(1L, 2L))).thenReturn(2);
+        when(archiveRepository.move(List.of(3L))).thenReturn(1);
+
+        archiver.archive();
+
+        verify(archiveRepository).ensurePartitions(any());
+        verify(leaseRepository).complete(anyString(), eq(0), anyString());
+        assertThat(meterRegistry.get("borrow.archive.rows").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void onlyTheReplicaHoldingTheLeaseArchives() {
+        when(leaseRepository.claimNext(anyString(), eq(1), anyString(), any(), any())).thenReturn(OptionalInt.empty());
+
+        archiver.archive();
+
+        verify(archiveRepository, never()).lockArchivable(any(), anyInt());
+    }
+
+    @Test
+    void failedRunReleasesTheLease() {
+        when(archiveRepository.lockArchivable(any(), anyInt())).thenThrow(new IllegalStateException("deadlock"));
+
+        archiver.archive();
+
+        verify(leaseRepository).release(anyString(), eq(0), anyString());
+        verify(leaseRepository, never()).complete(anyString(), anyInt(), anyString());
+    }
+}
@@ -0,0 +1,154 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.bits.borrowservice.repository.BorrowExportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BorrowExportServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private BorrowExportRepository exportRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private BorrowExportService service;
+
+    @BeforeEach
+    void setUp() {
+        exportRepository = mock(BorrowExportRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BorrowExportService(exportRepository, mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws IOException {
+        streams(List.of(borrow(1L), borrow(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service.export(ExportFormat.NDJSON, null, null, null, out);
+
+        assertThat(written).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "{\"id\":1,\"userId\":10,\"bookId\":100,\"borrowDate\":\"2026-02-15T12:00:00\","
+                        + "\"dueDate\":\"2026-03-01T12:00:00\",\"status\":\"RETURNED\",\"extensionCount\":1,"
+                        + "\"createdAt\":\"2026-02-15T12:00:00\",\"updatedAt\":\"2026-03-01T12:00:00\"}",
+                "{\"id\":2,\"userId\":10,\"bookId\":100,\"borrowDate\":\"2026-02-15T12:00:00\","
+                        + "\"dueDate\":\"2026-03-01T12:00:00\",\"status\":\"RETURNED\",\"extensionCount\":1,"
+                        + "\"createdAt\":\"2026-02-15T12:00:00\",\"updatedAt\":\"2026-03-01T12:00:00\"}");
+        assertThat(meterRegistry.get("borrow.export.rows").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("borrow.export").tag("format", "ndjson").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void csvStartsWithAHeaderRow() throws IOException {
+        streams(List.of(borrow(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(ExportFormat.CSV, NOW.minusDays(30), NOW, Borrow.BorrowStatus.RETURNED, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,user_id,book_id,borrow_date,due_date,status,extension_count,created_at,updated_at\n"
+                        + "1,10,100,2026-02-15T12:00:00,2026-03-01T12:00:00,RETURNED,1,"
+                        + "2026-02-15T12:00:00,2026-03-01T12:00:00\n");
+    }
+
+    @Test
+    void rowsAreWrittenWhileTheyAreStillBeingRead() throws IOException {
+        List<Borrow> borrows = LongStream.rangeClosed(1, 20_000).mapToObj(BorrowExportServiceTest::borrow).toList();
+        CountingStream out = new CountingStream();
+        long[] bytesBeforeLastRow = {0};
+        doAnswer(invocation -> {
+            Consumer<Borrow> action = invocation.getArgument(3);
+            for (int i = 0; i < borrows.size(); i++) {
+                if (i == borrows.size() - 1) {
+                    bytesBeforeLastRow[0] = out.count;
+                }
+                action.accept(borrows.get(i));
+            }
+            return null;
+        }).when(exportRepository).forEach(any(), any(), any(), any());
+
+        service.export(ExportFormat.CSV, null, null, null, out);
+
+        assertThat(bytesBeforeLastRow[0]).isPositive();
+    }
+
+    @Test
+    void aClientThatGoesAwayEndsTheExportWithItsIoError() {
+        streams(LongStream.rangeClosed(1, 20_000).mapToObj(BorrowExportServiceTest::borrow).toList());
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> service.export(ExportFormat.NDJSON, null, null, null, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    @Test
+    void unknownFormatsAreRejected() {
+        assertThat(ExportFormat.fromParameter("csv")).isEqualTo(ExportFormat.CSV);
+        assertThatThrownBy(() -> ExportFormat.fromParameter("xml")).isInstanceOf(BorrowServiceException.class);
+    }
+
+    private void streams(List<Borrow> borrows) {
+        doAnswer(invocation -> {
+            Consumer<Borrow> action = invocation.getArgument(3);
+            borrows.forEach(action);
+            return null;
+        }).when(exportRepository).forEach(any(), any(), any(), any());
+    }
+
+    private static Borrow borrow(long id) {
+        Borrow borrow = new Borrow();
+        borrow.setId(id);
+        borrow.setUserId(10L);
+        borrow.setBookId(100L);
+        borrow.setBorrowDate(NOW.minusDays(14));
+        borrow.setDueDate(NOW);
+        borrow.setStatus(Borrow.BorrowStatus.RETURNED);
+        borrow.setExtensionCount(1);
+        borrow.setCreatedAt(NOW.minusDays(14));
+        borrow.setUpdatedAt(NOW);
+        return borrow;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
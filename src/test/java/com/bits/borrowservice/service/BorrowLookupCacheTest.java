@@ -0,0 +1,123 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.exception.BorrowNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BorrowLookupCacheTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private BorrowLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BorrowLookupCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void hitsAreServedWithoutLoadingAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        BorrowResponse first = cache.get(1L, id -> { loads.incrementAndGet(); return response(id, NOW); });
+        BorrowResponse second = cache.get(1L, id -> { loads.incrementAndGet(); return response(id, NOW); });
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missingRecordsAndFailedLoadsAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, id -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThatThrownBy(() -> cache.get(1L, id -> { throw new BorrowNotFoundException("gone"); }))
+                .isInstanceOf(BorrowNotFoundException.class);
+        assertThat(cache.get(1L, id -> { loads.incrementAndGet(); return response(id, NOW); })).isNotNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BorrowResponse> first = executor.submit(() -> cache.get(1L, id -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return response(id, NOW);
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<BorrowResponse> second = executor.submit(() -> cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return response(id, NOW);
+            }));
+            release.countDown();
+
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+            assertThat(loads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refreshReplacesCachedRecordsOnly() {
+        cache.get(1L, id -> response(id, NOW));
+
+        cache.refresh(List.of(borrow(1L, NOW.plusMinutes(5)), borrow(2L, NOW.plusMinutes(5))));
+
+        assertThat(cache.get(1L, id -> response(id, NOW)).getUpdatedAt()).isEqualTo(NOW.plusMinutes(5));
+        assertThat(cache.get(2L, id -> response(id, NOW)).getUpdatedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void invalidatedRecordsAreLoadedAgain() {
+        cache.get(1L, id -> response(id, NOW));
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L, id -> response(id, NOW.plusMinutes(1))).getUpdatedAt())
+                .isEqualTo(NOW.plusMinutes(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BorrowResponse response(Long id, LocalDateTime updatedAt) {
+        return new BorrowResponse(id, 10L, 100L, NOW.minusDays(14), NOW, Borrow.BorrowStatus.BORROWED, NOW.minusDays(14), updatedAt);
+    }
+
+    private static Borrow borrow(Long id, LocalDateTime updatedAt) {
+        Borrow borrow = new Borrow();
+        borrow.setId(id);
+        borrow.setUserId(10L);
+        borrow.setBookId(100L);
+        borrow.setStatus(Borrow.BorrowStatus.RETURNED);
+        borrow.setUpdatedAt(updatedAt);
+        return borrow;
+    }
+}
@@ -0,0 +1,275 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.request.BorrowRequest;
+import com.bits.borrowservice.dto.request.BulkBorrowRequest;
+import com.bits.borrowservice.dto.request.BulkReturnRequest;
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.dto.response.BulkItemResult;
+import com.bits.borrowservice.dto.response.BulkOperationResponse;
+import com.bits.borrowservice.dto.response.CursorPage;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.event.BorrowEventPublisher;
+import com.bits.borrowservice.exception.BookNotAvailableException;
+import com.bits.borrowservice.exception.BorrowNotFoundException;
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.bits.borrowservice.exception.InvalidBorrowStatusException;
+import com.bits.borrowservice.exception.InvalidCursorException;
+import com.bits.borrowservice.exception.MaximumBorrowsExceededException;
+import com.bits.borrowservice.exception.MaximumExtensionsExceededException;
+import com.bits.borrowservice.repository.BorrowHistoryRepository;
+import com.bits.borrowservice.repository.BorrowJdbcRepository;
+import com.bits.borrowservice.repository.BorrowRepository;
+import com.bits.borrowservice.repository.FineAccrualRepository;
+import com.bits.borrowservice.repository.ReturnRepository;
+import com.bits.borrowservice.repository.UserBorrowCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BorrowServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private BorrowRepository borrowRepository;
+    private BorrowHistoryRepository historyRepository;
+    private ReturnRepository returnRepository;
+    private BorrowJdbcRepository borrowJdbcRepository;
+    private UserBorrowCounterRepository counterRepository;
+    private FineAccrualRepository fineAccrualRepository;
+    private BookStatusOutboxDispatcher bookStatusOutbox;
+    private BorrowValidator borrowValidator;
+    private BorrowEventPublisher eventPublisher;
+    private BorrowLookupCache lookupCache;
+    private BookBorrowCache bookBorrowCache;
+    private BorrowCacheCoordinator cacheCoordinator;
+    private BorrowService service;
+
+    @BeforeEach
+    void setUp() {
+        borrowRepository = mock(BorrowRepository.class);
+        historyRepository = mock(BorrowHistoryRepository.class);
+        returnRepository = mock(ReturnRepository.class);
+        borrowJdbcRepository = mock(BorrowJdbcRepository.class);
+        counterRepository = mock(UserBorrowCounterRepository.class);
+        fineAccrualRepository = mock(FineAccrualRepository.class);
+        bookStatusOutbox = mock(BookStatusOutboxDispatcher.class);
+        borrowValidator = mock(BorrowValidator.class);
+        eventPublisher = mock(BorrowEventPublisher.class);
+        lookupCache = mock(BorrowLookupCache.class);
+        bookBorrowCache = mock(BookBorrowCache.class);
+        cacheCoordinator = mock(BorrowCacheCoordinator.class);
+        service = new BorrowService(borrowRepository, historyRepository, returnRepository, borrowJdbcRepository,
+                counterRepository, fineAccrualRepository, bookStatusOutbox, borrowValidator, eventPublisher,
+                lookupCache, bookBorrowCache, cacheCoordinator);
+        ReflectionTestUtils.setField(service, "defaultLoanDays", 14);
+        ReflectionTestUtils.setField(service, "extensionDays", 7);
+        ReflectionTestUtils.setField(service, "maxExtensions", 2);
+        ReflectionTestUtils.setField(service, "finePerDay", new BigDecimal("0.50"));
+        ReflectionTestUtils.setField(service, "maxActiveBorrows", 5);
+        ReflectionTestUtils.setField(service, "maxBulkItems", 50);
+        ReflectionTestUtils.setField(service, "maxScrollSize", 100);
+    }
+
+    @Test
+    void userScrollFollowsTheCursorOfTheLastRowReturned() {
+        BorrowResponse newest = response(3L, NOW);
+        BorrowResponse older = response(2L, NOW.minusDays(1));
+        BorrowResponse oldest = response(1L, NOW.minusDays(2));
+        when(historyRepository.scrollByUserId(eq(10L), eq(LocalDateTime.of(9999, 12, 31, 0, 0)), eq(Long.MAX_VALUE),
+                eq(Limit.of(3)))).thenReturn(List.of(newest, older, oldest));
+
+        CursorPage<BorrowResponse> first = service.scrollUserBorrows(10L, null, 2);
+
+        assertThat(first.getContent()).containsExactly(newest, older);
+        assertThat(first.isHasNext()).isTrue();
+
+        when(historyRepository.scrollByUserId(10L, older.getBorrowDate(), 2L, Limit.of(3))).thenReturn(List.of(oldest));
+        CursorPage<BorrowResponse> second = service.scrollUserBorrows(10L, first.getNextCursor(), 2);
+
+        assertThat(second.getContent()).containsExactly(oldest);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void scrollSizeIsCappedAndCursorsAreValidated() {
+        when(historyRepository.scrollAll(0L, Limit.of(101))).thenReturn(List.of());
+
+        assertThat(service.scrollAllBorrows(null, 10_000).getContent()).isEmpty();
+        assertThatThrownBy(() -> service.scrollUserBorrows(10L, "!!!", 20))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> service.scrollUserBorrows(10L, new BorrowCursor(null, 5L).encode(), 20))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void borrowOverTheLimitIsRejectedBeforeAnythingIsWritten() {
+        when(counterRepository.tryIncrement(10L, 5)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.borrowBook(borrowRequest(10L, 100L)))
+                .isInstanceOf(MaximumBorrowsExceededException.class);
+        verify(borrowRepository, never()).save(any());
+        verify(bookStatusOutbox, never()).enqueue(anyLong(), anyString());
+    }
+
+    @Test
+    void returnLocksTheLoanAndReleasesTheUsersSlot() {
+        Borrow borrow = borrow(5L, 10L, 100L, Borrow.BorrowStatus.BORROWED);
+        when(borrowRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(borrow));
+        when(borrowRepository.save(borrow)).thenReturn(borrow);
+        when(fineAccrualRepository.accrue(eq(List.of(5L)), any(), any())).thenReturn(Map.of());
+
+        BorrowResponse response = service.returnBook(5L);
+
+        assertThat(response.getStatus()).isEqualTo(Borrow.BorrowStatus.RETURNED);
+        verify(counterRepository).decrement(10L);
+        verify(bookStatusOutbox).enqueue(100L, "AVAILABLE");
+    }
+
+    @Test
+    void returningAReturnedLoanDoesNotReleaseASlot() {
+        when(borrowRepository.findByIdForUpdate(5L))
+                .thenReturn(Optional.of(borrow(5L, 10L, 100L, Borrow.BorrowStatus.RETURNED)));
+
+        assertThatThrownBy(() -> service.returnBook(5L)).isInstanceOf(InvalidBorrowStatusException.class);
+        verify(counterRepository, never()).decrement(anyLong());
+    }
+
+    @Test
+    void rejectedExtensionReportsWhy() {
+        when(borrowJdbcRepository.extend(anyLong(), eq(7), eq(2))).thenReturn(Optional.empty());
+        when(borrowRepository.findById(5L)).thenReturn(Optional.of(borrow(5L, 10L, 100L, Borrow.BorrowStatus.BORROWED)));
+        when(borrowRepository.findById(6L)).thenReturn(Optional.of(borrow(6L, 10L, 101L, Borrow.BorrowStatus.RETURNED)));
+
+        assertThatThrownBy(() -> service.extendBorrow(5L)).isInstanceOf(MaximumExtensionsExceededException.class);
+        assertThatThrownBy(() -> service.extendBorrow(6L)).isInstanceOf(InvalidBorrowStatusException.class);
+        assertThatThrownBy(() -> service.extendBorrow(7L)).isInstanceOf(BorrowNotFoundException.class);
+        verify(eventPublisher, never()).publishDueDateEvent(any());
+    }
+
+    @Test
+    void archivedLoansAreReportedAsReturnedRatherThanMissing() {
+        when(historyRepository.findExistingIds(any())).thenReturn(List.of(8L));
+        when(borrowJdbcRepository.extend(anyLong(), eq(7), eq(2))).thenReturn(Optional.empty());
+        BulkReturnRequest bulk = new BulkReturnRequest();
+        bulk.setBorrowIds(List.of(8L));
+
+        assertThatThrownBy(() -> service.returnBook(8L)).isInstanceOf(InvalidBorrowStatusException.class);
+        assertThatThrownBy(() -> service.extendBorrow(8L)).isInstanceOf(InvalidBorrowStatusException.class);
+        assertThat(service.bulkReturn(bulk).getResults()).singleElement()
+                .extracting(BulkItemResult::getError).isEqualTo("Can only return borrowed books");
+        verify(counterRepository, never()).decrement(anyLong());
+    }
+
+    @Test
+    void extensionIsOneStatementFollowedByItsEvent() {
+        Borrow extended = borrow(5L, 10L, 100L, Borrow.BorrowStatus.BORROWED);
+        extended.setExtensionCount(1);
+        when(borrowJdbcRepository.extend(5L, 7, 2)).thenReturn(Optional.of(extended));
+
+        assertThat(service.extendBorrow(5L).getId()).isEqualTo(5L);
+        verify(eventPublisher).publishDueDateEvent(extended);
+        verify(borrowRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void bulkBorrowFailsOnlyTheItemsThatDoNotPassOrFit() {
+        List<BorrowRequest> items = List.of(borrowRequest(10L, 100L), borrowRequest(10L, 101L),
+                borrowRequest(11L, 102L), borrowRequest(10L, 103L));
+        when(borrowValidator.validateAll(items))
+                .thenReturn(Map.of(2, new BookNotAvailableException("Book is not available")));
+        when(counterRepository.reserve(10L, 3, 5)).thenReturn(2);
+        BulkBorrowRequest request = new BulkBorrowRequest();
+        request.setItems(items);
+
+        BulkOperationResponse response = service.bulkBorrow(request);
+
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BulkItemResult::isSuccess).containsExactly(true, true, false, false);
+        assertThat(response.getResults().get(3).getError()).isEqualTo("User has reached maximum active borrows");
+        verify(borrowRepository).saveAll(argThat(borrows -> borrows.spliterator().getExactSizeIfKnown() == 2));
+        verify(bookStatusOutbox).enqueueAll(List.of(100L, 101L), "BORROWED");
+    }
+
+    @Test
+    void bulkReturnReturnsEachLoanOnceWithOneLockingQuery() {
+        Borrow open = borrow(5L, 10L, 100L, Borrow.BorrowStatus.BORROWED);
+        Borrow closed = borrow(6L, 10L, 101L, Borrow.BorrowStatus.RETURNED);
+        when(borrowRepository.findAllByIdForUpdate(Set.of(5L, 6L, 7L))).thenReturn(List.of(open, closed));
+        when(fineAccrualRepository.accrue(eq(List.of(5L)), any(), any())).thenReturn(Map.of(5L, new BigDecimal("1.50")));
+        BulkReturnRequest request = new BulkReturnRequest();
+        request.setBorrowIds(List.of(5L, 5L, 6L, 7L));
+
+        BulkOperationResponse response = service.bulkReturn(request);
+
+        assertThat(response.getResults()).extracting(BulkItemResult::isSuccess).containsExactly(true, false, false, false);
+        assertThat(response.getResults().get(3).getError()).isEqualTo("Borrow record not found");
+        verify(counterRepository).decrementAll(Map.of(10L, 1));
+        verify(bookStatusOutbox).enqueueAll(List.of(100L), "AVAILABLE");
+    }
+
+    @Test
+    void oversizedBulkRequestsAreRejected() {
+        BulkReturnRequest request = new BulkReturnRequest();
+        request.setBorrowIds(LongStream.rangeClosed(1, 51).boxed().toList());
+
+        assertThatThrownBy(() -> service.bulkReturn(request)).isInstanceOf(BorrowServiceException.class);
+        verify(borrowRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void lookupsAreLoadedThroughTheCacheAndMissingRecordsAreNotFound() {
+        BorrowResponse found = response(1L, NOW);
+        when(lookupCache.get(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, BorrowResponse>>getArgument(1).apply(invocation.getArgument(0)));
+        when(historyRepository.findResponseById(1L)).thenReturn(Optional.of(found));
+        when(historyRepository.findResponseById(2L)).thenReturn(Optional.empty());
+
+        assertThat(service.getBorrow(1L)).isSameAs(found);
+        assertThatThrownBy(() -> service.getBorrow(2L)).isInstanceOf(BorrowNotFoundException.class);
+    }
+
+    private static BorrowRequest borrowRequest(Long userId, Long bookId) {
+        BorrowRequest request = new BorrowRequest();
+        request.setUserId(userId);
+        request.setBookId(bookId);
+        return request;
+    }
+
+    private static Borrow borrow(Long id, Long userId, Long bookId, Borrow.BorrowStatus status) {
+        Borrow borrow = new Borrow();
+        borrow.setId(id);
+        borrow.setUserId(userId);
+        borrow.setBookId(bookId);
+        borrow.setBorrowDate(NOW.minusDays(14));
+        borrow.setDueDate(NOW);
+        borrow.setStatus(status);
+        return borrow;
+    }
+
+    private static BorrowResponse response(Long id, LocalDateTime borrowDate) {
+        return new BorrowResponse(id, 10L, 100L + id, borrowDate, borrowDate.plusDays(14),
+                Borrow.BorrowStatus.BORROWED, borrowDate, borrowDate);
+    }
+}
@@ -0,0 +1,120 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.client.BookAvailabilityCoalescer;
+import com.bits.borrowservice.client.UserStatusCache;
+import com.bits.borrowservice.dto.request.BorrowRequest;
+import com.bits.borrowservice.exception.BookNotAvailableException;
+import com.bits.borrowservice.exception.BorrowServiceException;
+import com.bits.borrowservice.exception.UserNotActiveException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BorrowValidatorTest {
+
+    private final UserStatusCache userStatusCache = mock(UserStatusCache.class);
+    private final BookAvailabilityCoalescer bookAvailability = mock(BookAvailabilityCoalescer.class);
+    private BorrowValidator validator;
+
+    @AfterEach
+    void tearDown() {
+        validator.destroy();
+    }
+
+    @Test
+    void checksRunConcurrently() {
+        validator = validator(Duration.ofSeconds(5), 4);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(userStatusCache.isActive(1L)).thenAnswer(invocation -> meetAt(bothStarted));
+        when(bookAvailability.isAvailable(2L)).thenAnswer(invocation -> meetAt(bothStarted));
+
+        validator.validate(request(1L, 2L));
+
+        assertThat(bothStarted.getCount()).isZero();
+    }
+
+    @Test
+    void earliestFailingCheckWinsEvenWhenItFinishesLast() {
+        validator = validator(Duration.ofSeconds(5), 4);
+        when(userStatusCache.isActive(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return false;
+        });
+        when(bookAvailability.isAvailable(2L)).thenReturn(false);
+
+        assertThatThrownBy(() -> validator.validate(request(1L, 2L))).isInstanceOf(UserNotActiveException.class);
+    }
+
+    @Test
+    void checksOutlivingTheDeadlineFailTheBorrow() {
+        validator = validator(Duration.ofMillis(100), 4);
+        when(userStatusCache.isActive(1L)).thenReturn(true);
+        when(bookAvailability.isAvailable(2L)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return true;
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> validator.validate(request(1L, 2L)))
+                .isInstanceOf(BorrowServiceException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void saturatedExecutorRejectsInsteadOfRunningChecksInline() {
+        validator = validator(Duration.ofSeconds(5), 1);
+        when(userStatusCache.isActive(1L)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return true;
+        });
+
+        assertThatThrownBy(() -> validator.validate(request(1L, 2L)))
+                .isInstanceOf(BorrowServiceException.class)
+                .hasMessageContaining("Too many borrow requests");
+    }
+
+    @Test
+    void bulkValidationGivesEachBookToItsFirstRequestOnly() {
+        validator = validator(Duration.ofSeconds(5), 4);
+        when(userStatusCache.isActive(1L)).thenReturn(true);
+        when(userStatusCache.isActive(3L)).thenReturn(false);
+        when(bookAvailability.areAvailable(anyCollection())).thenReturn(Map.of(2L, true, 4L, false));
+
+        Map<Integer, BorrowServiceException> failures = validator.validateAll(List.of(
+                request(1L, 2L), request(1L, 2L), request(3L, 2L), request(1L, 4L)));
+
+        assertThat(failures).containsOnlyKeys(1, 2, 3);
+        assertThat(failures.get(1)).isInstanceOf(BookNotAvailableException.class);
+        assertThat(failures.get(2)).isInstanceOf(UserNotActiveException.class);
+        assertThat(failures.get(3)).isInstanceOf(BookNotAvailableException.class);
+    }
+
+    private BorrowValidator validator(Duration timeout, int maxConcurrency) {
+        return new BorrowValidator(userStatusCache, bookAvailability, new MockEnvironment(), timeout, maxConcurrency, 0);
+    }
+
+    private static boolean meetAt(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    private static BorrowRequest request(Long userId, Long bookId) {
+        BorrowRequest request = new BorrowRequest();
+        request.setUserId(userId);
+        request.setBookId(bookId);
+        return request;
+    }
+}
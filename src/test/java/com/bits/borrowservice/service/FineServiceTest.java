@@ -0,0 +1,116 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.FineResponse;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.entity.Fine;
+import com.bits.borrowservice.entity.FineHistory;
+import com.bits.borrowservice.exception.InvalidFineStatusException;
+import com.bits.borrowservice.repository.BorrowRepository;
+import com.bits.borrowservice.repository.FineHistoryRepository;
+import com.bits.borrowservice.repository.FineRepository;
+import com.bits.borrowservice.repository.UserFineBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FineServiceTest {
+
+    private FineRepository fineRepository;
+    private FineHistoryRepository fineHistoryRepository;
+    private UserFineBalanceRepository fineBalanceRepository;
+    private BorrowRepository borrowRepository;
+    private FineService fineService;
+
+    @BeforeEach
+    void setUp() {
+        fineRepository = mock(FineRepository.class);
+        borrowRepository = mock(BorrowRepository.class);
+        fineHistoryRepository = mock(FineHistoryRepository.class);
+        fineBalanceRepository = mock(UserFineBalanceRepository.class);
+        fineService = new FineService(fineRepository, fineHistoryRepository, fineBalanceRepository, borrowRepository);
+    }
+
+    @Test
+    void userFinesIncludeArchivedOnes() {
+        Pageable pageable = PageRequest.of(0, 20);
+        FineHistory archived = new FineHistory();
+        archived.setId(20L);
+        archived.setBorrowId(1L);
+        archived.setUserId(10L);
+        archived.setAmount(new BigDecimal("5.00"));
+        archived.setStatus(Fine.FineStatus.PAID);
+        when(fineHistoryRepository.findByUserId(10L, pageable)).thenReturn(new PageImpl<>(List.of(archived), pageable, 1));
+
+        Page<FineResponse> fines = fineService.getUserFines(10L, pageable);
+
+        assertThat(fines.getContent()).singleElement()
+                .satisfies(fine -> {
+                    assertThat(fine.getBorrowId()).isEqualTo(1L);
+                    assertThat(fine.getStatus()).isEqualTo(Fine.FineStatus.PAID);
+                });
+    }
+
+    @Test
+    void userWithoutFinesHasAZeroBalance() {
+        when(fineBalanceRepository.find(10L)).thenReturn(Optional.empty());
+
+        assertThat(fineService.getBalance(10L).getOutstanding()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void settlementLocksTheLoanBeforeSettlingAndDeductsTheCurrentAmount() {
+        Fine before = fine(20L, 1L, 10L, "5.00", Fine.FineStatus.PENDING);
+        Fine after = fine(20L, 1L, 10L, "6.00", Fine.FineStatus.PAID);
+        when(fineRepository.findWithBorrowById(20L)).thenReturn(Optional.of(before), Optional.of(after));
+        when(fineRepository.settle(20L, Fine.FineStatus.PAID)).thenReturn(1);
+
+        FineResponse response = fineService.payFine(20L);
+
+        InOrder order = inOrder(borrowRepository, fineRepository, fineBalanceRepository);
+        order.verify(borrowRepository).findByIdForUpdate(1L);
+        order.verify(fineRepository).settle(20L, Fine.FineStatus.PAID);
+        order.verify(fineBalanceRepository).adjust(10L, new BigDecimal("-6.00"), -1);
+        assertThat(response.getStatus()).isEqualTo(Fine.FineStatus.PAID);
+    }
+
+    @Test
+    void settledFinesCannotBeSettledAgain() {
+        Fine paid = fine(20L, 1L, 10L, "5.00", Fine.FineStatus.PAID);
+        when(fineRepository.findWithBorrowById(20L)).thenReturn(Optional.of(paid));
+        when(fineRepository.settle(20L, Fine.FineStatus.WAIVED)).thenReturn(0);
+
+        assertThatThrownBy(() -> fineService.waiveFine(20L)).isInstanceOf(InvalidFineStatusException.class);
+        verify(fineBalanceRepository, never()).adjust(anyLong(), any(), anyInt());
+    }
+
+    private static Fine fine(Long id, Long borrowId, Long userId, String amount, Fine.FineStatus status) {
+        Borrow borrow = new Borrow();
+        borrow.setId(borrowId);
+        borrow.setUserId(userId);
+        Fine fine = new Fine();
+        fine.setId(id);
+        fine.setBorrow(borrow);
+        fine.setAmount(new BigDecimal(amount));
+        fine.setStatus(status);
+        return fine;
+    }
+}
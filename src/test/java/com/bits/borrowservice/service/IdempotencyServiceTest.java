@@ -0,0 +1,200 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.dto.response.BorrowResponse;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.exception.IdempotencyKeyInProgressException;
+import com.bits.borrowservice.exception.IdempotencyKeyMismatchException;
+import com.bits.borrowservice.repository.IdempotencyKeyRepository;
+import com.bits.borrowservice.security.CustomUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+    private static final String FINGERPRINT = "borrow:user=1,book=2";
+
+    private IdempotencyKeyRepository keyRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        keyRepository = mock(IdempotencyKeyRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        service = new IdempotencyService(keyRepository, mock(PlatformTransactionManager.class), objectMapper,
+                meterRegistry, Duration.ofMinutes(10), 100);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofSeconds(5));
+        when(keyRepository.claim(anyString(), anyString(), any(), any(), any())).thenReturn(true);
+        authenticateAs("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedKeyIsReplayedFromTheCache() {
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyService.Result first = service.execute("k1", FINGERPRINT, () -> response(runs.incrementAndGet()));
+        IdempotencyService.Result second = service.execute("k1", FINGERPRINT, () -> response(runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.response()).isEqualTo(first.response());
+        verify(keyRepository, times(1)).claim(eq("alice:k1"), eq(FINGERPRINT), any(), any(), eq(Duration.ofSeconds(5)));
+        assertThat(replayed("cache")).isEqualTo(1.0);
+    }
+
+    @Test
+    void keysAreScopedToThePrincipal() {
+        AtomicInteger runs = new AtomicInteger();
+        service.execute("k1", FINGERPRINT, () -> response(runs.incrementAndGet()));
+
+        authenticateAs("bob");
+        IdempotencyService.Result other = service.execute("k1", FINGERPRINT, () -> response(runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(2);
+        assertThat(other.replayed()).isFalse();
+        verify(keyRepository).claim(eq("bob:k1"), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void duplicateWaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result> first = CompletableFuture.supplyAsync(() -> {
+            authenticateAs("alice");
+            return service.execute("k1", FINGERPRINT, () -> {
+                running.countDown();
+                await(release);
+                return response(1);
+            });
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<IdempotencyService.Result> second = CompletableFuture.supplyAsync(() -> {
+            authenticateAs("alice");
+            return service.execute("k1", FINGERPRINT, () -> response(2));
+        });
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS).replayed()).isTrue();
+        assertThat(second.get().response()).isEqualTo(first.get(5, TimeUnit.SECONDS).response());
+        assertThat(replayed("in-flight") + replayed("cache")).isEqualTo(1.0);
+    }
+
+    @Test
+    void keyCompletedOnAnotherReplicaIsReplayedFromTheDatabase() throws Exception {
+        when(keyRepository.claim(anyString(), anyString(), any(), any(), any())).thenReturn(false);
+        when(keyRepository.find("alice:k1")).thenReturn(Optional.of(new IdempotencyKeyRepository.StoredKey(
+                FINGERPRINT, "COMPLETED", objectMapper.writeValueAsString(response(7)))));
+
+        IdempotencyService.Result result = service.execute("k1", FINGERPRINT, () -> response(8));
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.response().getId()).isEqualTo(7L);
+        assertThat(replayed("database")).isEqualTo(1.0);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        service.execute("k1", FINGERPRINT, () -> response(1));
+
+        assertThatThrownBy(() -> service.execute("k1", "return:borrow=9", () -> response(2)))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void uncommittedClaimOnAnotherReplicaTimesOut() {
+        when(keyRepository.claim(anyString(), anyString(), any(), any(), any()))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+
+        assertThatThrownBy(() -> service.execute("k1", FINGERPRINT, () -> response(1)))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+        verify(keyRepository, never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void requestInFlightLongerThanTheWaitTimeoutTimesOut() throws Exception {
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofMillis(50));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result> first = CompletableFuture.supplyAsync(() -> {
+            authenticateAs("alice");
+            return service.execute("k1", FINGERPRINT, () -> {
+                running.countDown();
+                await(release);
+                return response(1);
+            });
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> service.execute("k1", FINGERPRINT, () -> response(2)))
+                    .isInstanceOf(IdempotencyKeyInProgressException.class);
+        } finally {
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private double replayed(String source) {
+        return meterRegistry.get("borrow.idempotency.replayed").tag("source", source).counter().count();
+    }
+
+    // As JwtAuthenticationFilter does for a token whose subject is name
+    private static void authenticateAs(String name) {
+        UserDetails user = new CustomUserDetailsService().loadUserByUsername(name);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BorrowResponse response(long id) {
+        BorrowResponse response = new BorrowResponse();
+        response.setId(id);
+        response.setUserId(1L);
+        response.setBookId(2L);
+        response.setStatus(Borrow.BorrowStatus.BORROWED);
+        return response;
+    }
+}
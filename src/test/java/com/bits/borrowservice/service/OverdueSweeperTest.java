@@ -0,0 +1,122 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.config.InstanceId;
+import com.bits.borrowservice.entity.Borrow;
+import com.bits.borrowservice.event.BorrowEventPublisher;
+import com.bits.borrowservice.repository.BorrowJdbcRepository;
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import com.bits.borrowservice.repository.UserBorrowCounterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OverdueSweeperTest {
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime DUE = LocalDateTime.of(2026, 2, 1, 0, 0);
+
+    private BorrowJdbcRepository borrowJdbcRepository;
+    private JobPartitionLeaseRepository leaseRepository;
+    private UserBorrowCounterRepository counterRepository;
+    private BorrowEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private OverdueSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        borrowJdbcRepository = mock(BorrowJdbcRepository.class);
+        leaseRepository = mock(JobPartitionLeaseRepository.class);
+        counterRepository = mock(UserBorrowCounterRepository.class);
+        eventPublisher = mock(BorrowEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new OverdueSweeper(borrowJdbcRepository, leaseRepository, counterRepository, eventPublisher,
+                mock(BorrowCacheCoordinator.class), mock(PlatformTransactionManager.class), new InstanceId("test"),
+                meterRegistry, 1);
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+        ReflectionTestUtils.setField(sweeper, "partitions", 16);
+        ReflectionTestUtils.setField(sweeper, "lease", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(sweeper, "minInterval", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(sweeper, "retryDelay", Duration.ofMinutes(5));
+        when(leaseRepository.claimNext(anyString(), anyInt(), anyString(), any(), any()))
+                .thenReturn(OptionalInt.of(3), OptionalInt.empty());
+        when(leaseRepository.renew(anyString(), anyInt(), anyString(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sweeper.shutdown();
+    }
+
+    @Test
+    void partitionIsSweptInKeysetChunksUntilAShortOne() {
+        Borrow first = overdue(1L, 10L, DUE);
+        Borrow second = overdue(17L, 10L, DUE.plusDays(1));
+        Borrow third = overdue(33L, 11L, DUE.plusDays(2));
+        when(borrowJdbcRepository.markOverdueChunk(eq(3), eq(16), any(), eq(START), eq(0L), eq(2)))
+                .thenReturn(List.of(first, second));
+        when(borrowJdbcRepository.markOverdueChunk(eq(3), eq(16), any(), eq(DUE.plusDays(1)), eq(17L), eq(2)))
+                .thenReturn(List.of(third));
+
+        sweeper.sweep();
+
+        verify(counterRepository).decrementAll(Map.of(10L, 2));
+        verify(counterRepository).decrementAll(Map.of(11L, 1));
+        verify(eventPublisher).publishDueDateEvents(List.of(first, second));
+        verify(eventPublisher).publishDueDateEvents(List.of(third));
+        verify(leaseRepository).complete(anyString(), eq(3), anyString());
+        assertThat(meterRegistry.get("borrow.overdue.sweep.rows").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void failedPartitionIsReleasedWithARetryDelayAndTheRunEnds() {
+        // Partition 3 stays claimable until it is released with a retry delay, as in job_partition_leases
+        AtomicBoolean backedOff = new AtomicBoolean();
+        when(leaseRepository.claimNext(anyString(), anyInt(), anyString(), any(), any()))
+                .thenAnswer(invocation -> backedOff.get() ? OptionalInt.empty() : OptionalInt.of(3));
+        doAnswer(invocation -> {
+            backedOff.set(!invocation.<Duration>getArgument(3).isZero());
+            return null;
+        }).when(leaseRepository).release(anyString(), eq(3), anyString(), any());
+        when(borrowJdbcRepository.markOverdueChunk(anyInt(), anyInt(), any(), any(), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), sweeper::sweep);
+
+        verify(leaseRepository).release(anyString(), eq(3), anyString(), eq(Duration.ofMinutes(5)));
+        verify(borrowJdbcRepository, times(1)).markOverdueChunk(anyInt(), anyInt(), any(), any(), anyLong(), anyInt());
+        verify(leaseRepository, never()).complete(anyString(), anyInt(), anyString());
+    }
+
+    private static Borrow overdue(Long id, Long userId, LocalDateTime dueDate) {
+        Borrow borrow = new Borrow();
+        borrow.setId(id);
+        borrow.setUserId(userId);
+        borrow.setBookId(100L + id);
+        borrow.setDueDate(dueDate);
+        borrow.setStatus(Borrow.BorrowStatus.OVERDUE);
+        return borrow;
+    }
+}
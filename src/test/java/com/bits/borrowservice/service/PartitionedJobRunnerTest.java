@@ -0,0 +1,97 @@
+package com.bits.borrowservice.service;
+
+import com.bits.borrowservice.repository.JobPartitionLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionedJobRunnerTest {
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(10);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(15);
+
+    private JobPartitionLeaseRepository leaseRepository;
+    private Set<Integer> unavailable;
+    private PartitionedJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository = mock(JobPartitionLeaseRepository.class);
+        runner = new PartitionedJobRunner("test-job", leaseRepository, "test", 2);
+
+        // Models job_partition_leases: the lowest partition that is not leased, completed or backing off
+        unavailable = ConcurrentHashMap.newKeySet();
+        when(leaseRepository.claimNext(eq("test-job"), anyInt(), eq("test"), any(), any())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(1);
+            synchronized (unavailable) {
+                for (int partition = 0; partition < count; partition++) {
+                    if (unavailable.add(partition)) {
+                        return OptionalInt.of(partition);
+                    }
+                }
+                return OptionalInt.empty();
+            }
+        });
+        doAnswer(invocation -> {
+            if (invocation.<Duration>getArgument(3).isZero()) {
+                unavailable.remove(invocation.<Integer>getArgument(1));
+            }
+            return null;
+        }).when(leaseRepository).release(anyString(), anyInt(), anyString(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void everyPartitionIsProcessedOnceAndCompleted() {
+        long total = runner.run(4, LEASE, MIN_INTERVAL, RETRY_DELAY, partition -> partition + 1L);
+
+        assertThat(total).isEqualTo(1 + 2 + 3 + 4);
+        for (int partition = 0; partition < 4; partition++) {
+            verify(leaseRepository).complete("test-job", partition, "test");
+        }
+        verify(leaseRepository).ensurePartitions("test-job", 4);
+    }
+
+    @Test
+    void aPartitionThatAlwaysFailsBacksOffAndTheRunEnds() {
+        AtomicLong attempts = new AtomicLong();
+
+        long total = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                runner.run(3, LEASE, MIN_INTERVAL, RETRY_DELAY, partition -> {
+                    if (partition == 1) {
+                        attempts.incrementAndGet();
+                        throw new IllegalStateException("poison row");
+                    }
+                    return 10L;
+                }));
+
+        assertThat(total).isEqualTo(20);
+        assertThat(attempts).hasValue(1);
+        verify(leaseRepository).release("test-job", 1, "test", RETRY_DELAY);
+        verify(leaseRepository, never()).complete("test-job", 1, "test");
+        verify(leaseRepository).complete("test-job", 0, "test");
+        verify(leaseRepository).complete("test-job", 2, "test");
+    }
+}